@@ -57,7 +57,6 @@ import static gen.lib.cgraph.obj__c.agroot;
 import static gen.lib.cgraph.rec__c.agbindrec;
 import static gen.lib.cgraph.subg__c.agparent;
 import static smetana.core.JUtils.EQ;
-import static smetana.core.JUtils.LOG2;
 import static smetana.core.JUtils.NEQ;
 import static smetana.core.JUtils.sizeof;
 import static smetana.core.JUtilsDebug.ENTERING;
@@ -280,14 +279,10 @@ try {
 	//StructureDefinition.from(IMapEntry_t.class);
 	}
 	NB++;
-    LOG2("NB="+NB);
     ST_Agsubnode_s sn;
     sn = agsubrep(g, n);
-    LOG2("sn1="+sn);
     if (sn!=null) sn = (ST_Agsubnode_s) g.n_seq.searchf.exe(g.n_seq,sn,0000010);
-    LOG2("sn2="+sn);
     final __ptr__ result = sn!=null ? sn.node : null;
-    LOG2("result="+result);
 	return (ST_Agnode_s) result;
 } finally {
 LEAVING("bek79ccvjys1j9q404i3y6oh8","agnxtnode");
@@ -93,6 +93,7 @@ import h.ST_nodequeue;
 import h.ST_pointf;
 import smetana.core.CString;
 import smetana.core.Memory;
+import smetana.core.NetworkSimplex;
 import smetana.core.Z;
 import smetana.core.__ptr__;
 import smetana.core.jmp_buf;
@@ -1479,6 +1480,11 @@ throw new UnsupportedOperationException();
 public static int rank2(ST_Agraph_s g, int balance, int maxiter, int search_size) {
 ENTERING("5n0ipwzhr8urlx0fsdzr02gwq","rank2");
 try {
+    if (Z.z().UseArrays) {
+	final NetworkSimplex fast = NetworkSimplex.create(g);
+	if (fast != null)
+	    return fast.rank2(balance, maxiter, search_size);
+    }
     int iter = 0, feasible;
     CString ns = new CString("network simplex: ");
     ST_Agedge_s e, f;
@@ -133,6 +133,7 @@ import h.ST_nodequeue;
 import h.ST_pointf;
 import h.ST_rank_t;
 
+import java.util.Arrays;
 import java.util.List;
 
 import smetana.core.CString;
@@ -1139,6 +1140,8 @@ LEAVING("657v773m21j5w3g3v94o7464t","left2right");
 public static int in_cross(ST_Agnode_s v, ST_Agnode_s w) {
 ENTERING("daknncpjy7g5peiicolbmh55i","in_cross");
 try {
+    if (Z.z().UseArrays)
+	return in_cross_arrays(v, w);
     List<ST_Agedge_s> e2_ = ND_in(w).list;
     int inv, cross = 0, t;
     for (int ie2 = 0; e2_.get(ie2)!=null; ie2++) {
@@ -1167,6 +1170,8 @@ LEAVING("daknncpjy7g5peiicolbmh55i","in_cross");
 public static int out_cross(ST_Agnode_s v, ST_Agnode_s w) {
 ENTERING("b7mf74np8ewrgzwd5u0o8fqod","out_cross");
 try {
+    if (Z.z().UseArrays)
+	return out_cross_arrays(v, w);
  	List<ST_Agedge_s> e2_ = ND_out(w).list;
     int inv, cross = 0, t;
     for (int ie2 = 0; e2_.get(ie2)!=null; ie2++) {
@@ -1190,6 +1195,81 @@ LEAVING("b7mf74np8ewrgzwd5u0o8fqod","out_cross");
 
 
 
+// Same as in_cross(), reading the in edges of v only once
+private static int in_cross_arrays(ST_Agnode_s v, ST_Agnode_s w) {
+    final int n1 = load_cross_arrays(ND_in(v).list, true);
+    final int order[] = Z.z().CrossOrder;
+    final int xpenalty[] = Z.z().CrossPenalty;
+    final double port[] = Z.z().CrossPort;
+    List<ST_Agedge_s> e2_ = ND_in(w).list;
+    int inv, cross = 0, t;
+    for (int ie2 = 0; e2_.get(ie2)!=null; ie2++) {
+	int cnt = ED_xpenalty(e2_.get(ie2));
+	inv = ND_order((agtail(e2_.get(ie2))));
+	final double x = ED_tail_port(e2_.get(ie2)).p.x;
+	for (int ie1 = 0; ie1 < n1; ie1++) {
+	    t = order[ie1] - inv;
+	    if ((t > 0) || ((t == 0) && (port[ie1] > x)))
+		cross += xpenalty[ie1] * cnt;
+	}
+    }
+    return cross;
+}
+
+
+
+
+// Same as out_cross(), reading the out edges of v only once
+private static int out_cross_arrays(ST_Agnode_s v, ST_Agnode_s w) {
+    final int n1 = load_cross_arrays(ND_out(v).list, false);
+    final int order[] = Z.z().CrossOrder;
+    final int xpenalty[] = Z.z().CrossPenalty;
+    final double port[] = Z.z().CrossPort;
+    List<ST_Agedge_s> e2_ = ND_out(w).list;
+    int inv, cross = 0, t;
+    for (int ie2 = 0; e2_.get(ie2)!=null; ie2++) {
+	int cnt = ED_xpenalty(e2_.get(ie2));
+	inv = ND_order(aghead(e2_.get(ie2)));
+	final double x = ED_head_port(e2_.get(ie2)).p.x;
+	for (int ie1 = 0; ie1 < n1; ie1++) {
+	    t = order[ie1] - inv;
+	    if ((t > 0) || ((t == 0) && (port[ie1] > x)))
+		cross += xpenalty[ie1] * cnt;
+	}
+    }
+    return cross;
+}
+
+
+
+
+// Copies the order of the far node, the penalty and the port of each edge into Z
+private static int load_cross_arrays(List<ST_Agedge_s> edges, boolean in) {
+    int n = 0;
+    while (edges.get(n)!=null)
+	n++;
+    if (Z.z().CrossOrder == null || Z.z().CrossOrder.length < n) {
+	Z.z().CrossOrder = new int[n];
+	Z.z().CrossPenalty = new int[n];
+	Z.z().CrossPort = new double[n];
+    }
+    for (int i = 0; i < n; i++) {
+	final ST_Agedge_s e = edges.get(i);
+	Z.z().CrossPenalty[i] = ED_xpenalty(e);
+	if (in) {
+	    Z.z().CrossOrder[i] = ND_order(agtail(e));
+	    Z.z().CrossPort[i] = ED_tail_port(e).p.x;
+	} else {
+	    Z.z().CrossOrder[i] = ND_order(aghead(e));
+	    Z.z().CrossPort[i] = ED_head_port(e).p.x;
+	}
+    }
+    return n;
+}
+
+
+
+
 //3 ba4tbr57wips1dzpgxzx3b6ja
 // static void exchange(node_t * v, node_t * w) 
 public static void exchange(ST_Agnode_s v, ST_Agnode_s w) {
@@ -1597,6 +1677,7 @@ try {
 	Memory.free(Z.z().TI_list);
 	Z.z().TI_list = null;
     }
+    Z.z().MedianList = null;
     if (Z.z().TE_list!=null) {
 	Memory.free(Z.z().TE_list);
 	Z.z().TE_list = null;
@@ -1874,6 +1955,8 @@ try {
     size = agnedges(dot_root(g)) + 1;
     Z.z().TE_list = new ST_Agedge_s.ArrayOfStar(size);
     Z.z().TI_list = zmalloc(size_t_array_of_integer(size));
+    if (Z.z().UseArrays)
+	Z.z().MedianList = new int[size];
     mincross_options(g);
     if ((GD_flags(g) & (1 << 4))!=0)
 	fillRanks (g);
@@ -2470,6 +2553,8 @@ LEAVING("aq18oa4k4grixvfjx7r2qnl6r","local_cross");
 public static int rcross(ST_Agraph_s g, int r) {
 ENTERING("bk5nklhfqgg0uwkv7tv6dn8r2","rcross");
 try {
+    if (Z.z().UseArrays)
+	return rcross_arrays(g, r);
     int top, bot, cross, max, i, k;
     ST_Agnode_s v;
     ST_Agnode_s.ArrayOfStar rtop;
@@ -2516,6 +2601,55 @@ LEAVING("bk5nklhfqgg0uwkv7tv6dn8r2","rcross");
 
 
 
+// Same as rcross(), with the counters in an int array
+private static int rcross_arrays(ST_Agraph_s g, int r) {
+    int top, bot, cross, max, i, k;
+    ST_Agnode_s v;
+    ST_Agnode_s.ArrayOfStar rtop;
+    int count[];
+    cross = 0;
+    max = 0;
+    rtop = GD_rank(g).get(r).v;
+    count = Z.z().CountArray;
+    if (count == null || count.length <= GD_rank(Z.z().Root).plus(r + 1).getPtr().n) {
+	count = new int[GD_rank(Z.z().Root).plus(r + 1).getPtr().n + 1];
+	Z.z().CountArray = count;
+    }
+    for (i = 0; i < GD_rank(g).get(r + 1).n; i++)
+	count[i] = 0;
+    for (top = 0; top < GD_rank(g).get(r).n; top++) {
+	final List<ST_Agedge_s> out = ND_out(rtop.get(top)).list;
+	ST_Agedge_s e;
+	if (max > 0) {
+	    for (i = 0; (e = out.get(i))!=null; i++) {
+		final int xpenalty = ED_xpenalty(e);
+		for (k = ND_order(aghead(e)) + 1; k <= max; k++)
+		    cross += count[k] * xpenalty;
+	    }
+	}
+	for (i = 0; (e = out.get(i))!=null; i++) {
+	    int inv = ND_order(aghead(e));
+	    if (inv > max)
+		max = inv;
+	    count[inv] += ED_xpenalty(e);
+	}
+    }
+    for (top = 0; top < GD_rank(g).get(r).n; top++) {
+	v = (ST_Agnode_s) GD_rank(g).get(r).v.get(top);
+	if (ND_has_port(v))
+	    cross += local_cross(ND_out(v), 1);
+    }
+    for (bot = 0; bot < GD_rank(g).get(r + 1).n; bot++) {
+	v = (ST_Agnode_s) GD_rank(g).get(r + 1).v.get(bot);
+	if (ND_has_port(v))
+	    cross += local_cross(ND_in(v), -1);
+    }
+    return cross;
+}
+
+
+
+
 //3 dbjmz2tnii2pn9sxg26ap6w5r
 // int ncross(graph_t * g) 
 public static int ncross(ST_Agraph_s g) {
@@ -2601,6 +2735,8 @@ LEAVING("7397kynkpqf2m1jkpmi8pgf0n","flat_mval");
 public static boolean medians(ST_Agraph_s g, int r0, int r1) {
 ENTERING("azvdpixwwxspl31wp7f4k4fmh","medians");
 try {
+    if (Z.z().UseArrays)
+	return medians_arrays(g, r0, r1);
     int i, j, j0, lm, rm, lspan, rspan;
     __ptr__ list;
     ST_Agnode_s n;
@@ -2666,6 +2802,67 @@ LEAVING("azvdpixwwxspl31wp7f4k4fmh","medians");
 
 
 
+// Same as medians(), sorting an int array instead of calling ordercmpf()
+private static boolean medians_arrays(ST_Agraph_s g, int r0, int r1) {
+    int i, j, j0, lm, rm, lspan, rspan;
+    final int list[] = Z.z().MedianList;
+    ST_Agnode_s n;
+    ST_Agnode_s.ArrayOfStar v;
+    ST_Agedge_s e;
+    boolean hasfixed = false;
+    v = GD_rank(g).get(r0).v;
+    for (i = 0; i < GD_rank(g).get(r0).n; i++) {
+	n = (ST_Agnode_s) v.get(i);
+	j = 0;
+	if (r1 > r0)
+	    for (j0 = 0; (e = (ST_Agedge_s) ND_out(n).getFromList(j0))!=null; j0++) {
+		if (ED_xpenalty(e) > 0)
+		    list[j++] = 256 * ND_order(aghead(e)) + (ED_head_port(e)).order;
+	} else
+	    for (j0 = 0; (e = (ST_Agedge_s) ND_in(n).getFromList(j0))!=null; j0++) {
+		if (ED_xpenalty(e) > 0)
+		    list[j++] = 256 * ND_order(agtail(e)) + (ED_tail_port(e)).order;
+	    }
+	switch (j) {
+	case 0:
+	    ND_mval(n, -1);
+	    break;
+	case 1:
+	    ND_mval(n, list[0]);
+	    break;
+	case 2:
+	    ND_mval(n, (list[0] + list[1]) / 2);
+	    break;
+	default:
+	    Arrays.sort(list, 0, j);
+	    if (j % 2!=0)
+		ND_mval(n, list[j / 2]);
+	    else {
+		/* weighted median */
+		rm = j / 2;
+		lm = rm - 1;
+		rspan = list[j - 1] - list[rm];
+		lspan = list[lm] - list[0];
+		if (lspan == rspan)
+		    ND_mval(n, (list[lm] + list[rm]) / 2);
+		else {
+		    int w = list[lm] * rspan + list[rm] * lspan;
+		    ND_mval(n, w / (lspan + rspan));
+		}
+	    }
+	}
+    }
+    for (i = 0; i < GD_rank(g).get(r0).n; i++) {
+	n = (ST_Agnode_s) v.get(i);
+	if ((ND_out(n).size == 0) && (ND_in(n).size == 0))
+	    hasfixed |= flat_mval(n);
+    }
+    return hasfixed;
+}
+
+
+
+
 //3 2vdhpcykq508ma83aif8sxcbd
 // static int nodeposcmpf(node_t ** n0, node_t ** n1) 
 public static Object nodeposcmpf(__ptr__ n0, __ptr__ n1) {
@@ -51,6 +51,7 @@ import net.sourceforge.plantuml.core.ImageData;
 import net.sourceforge.plantuml.core.UmlSource;
 import net.sourceforge.plantuml.cucadiagram.Display;
 import net.sourceforge.plantuml.cucadiagram.DisplayPositionned;
+import net.sourceforge.plantuml.graphic.DimensionMemo;
 import net.sourceforge.plantuml.graphic.HorizontalAlignment;
 import net.sourceforge.plantuml.graphic.VerticalAlignment;
 import net.sourceforge.plantuml.stats.StatsUtilsIncrement;
@@ -140,9 +141,12 @@ public abstract class AbstractPSystem implements Diagram {
 	final public ImageData exportDiagram(OutputStream os, int index, FileFormatOption fileFormatOption)
 			throws IOException {
 		final long now = System.currentTimeMillis();
+		DimensionMemo.resetCounters();
 		try {
 			return exportDiagramNow(os, index, fileFormatOption, seed());
 		} finally {
+			Log.info(DimensionMemo.getCounters());
+			Log.info(TextMetricsCache.getInstance().toString());
 			if (OptionFlags.getInstance().isEnableStats()) {
 				StatsUtilsIncrement.onceMoreGenerate(System.currentTimeMillis() - now, getClass(),
 						fileFormatOption.getFileFormat());
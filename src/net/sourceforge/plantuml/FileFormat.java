@@ -39,17 +39,15 @@
  */
 package net.sourceforge.plantuml;
 
-import java.awt.Font;
-import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.geom.Dimension2D;
-import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 
 import net.sourceforge.plantuml.braille.BrailleCharFactory;
 import net.sourceforge.plantuml.braille.UGraphicBraille;
+import net.sourceforge.plantuml.fontmetrics.FontMetricsTables;
 import net.sourceforge.plantuml.graphic.StringBounder;
 import net.sourceforge.plantuml.png.MetadataTag;
 import net.sourceforge.plantuml.security.SFile;
@@ -94,10 +92,29 @@ public enum FileFormat {
 	}
 
 	final static private BufferedImage imDummy = new BufferedImage(800, 100, BufferedImage.TYPE_INT_RGB);
-	final static public Graphics2D gg = imDummy.createGraphics();
-	static {
+	final static public Graphics2D gg = createMeasurementGraphics(imDummy);
+
+	// Java2D locks on the Graphics2D while measuring: each thread gets its own
+	// one, set up like gg so that the FontRenderContext is the same
+	final static private ThreadLocal<Graphics2D> measurementGraphics = new ThreadLocal<Graphics2D>() {
+		@Override
+		protected Graphics2D initialValue() {
+			return createMeasurementGraphics(new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB));
+		}
+	};
+
+	private static Graphics2D createMeasurementGraphics(BufferedImage im) {
+		final Graphics2D result = im.createGraphics();
 		// KEY_FRACTIONALMETRICS
-		gg.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+		result.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+		return result;
+	}
+
+	/**
+	 * Graphics2D of the current thread, to be used for text measurement.
+	 */
+	public static Graphics2D getMeasurementGraphics() {
+		return measurementGraphics.get();
 	}
 
 	public StringBounder getDefaultStringBounder(TikzFontDistortion tikzFontDistortion) {
@@ -112,6 +129,9 @@ public enum FileFormat {
 	}
 
 	private StringBounder getNormalStringBounder() {
+		if (FontMetricsTables.isEnabled()) {
+			return getTableStringBounder();
+		}
 		return new StringBounder() {
 			@Override
 			public String toString() {
@@ -125,11 +145,26 @@ public enum FileFormat {
 		};
 	}
 
+	private StringBounder getTableStringBounder() {
+		return new StringBounder() {
+			@Override
+			public String toString() {
+				return "FileFormat::getTableStringBounder";
+			}
+
+			public Dimension2D calculateDimension(UFont font, String text) {
+				final Dimension2DDouble result = FontMetricsTables.getInstance().getDimension(font.getFont(), text);
+				if (result == null) {
+					return getJavaDimension(font, text);
+				}
+				return result;
+			}
+
+		};
+	}
+
 	private Dimension2DDouble getJavaDimension(UFont font, String text) {
-		final Font javaFont = font.getFont();
-		final FontMetrics fm = gg.getFontMetrics(javaFont);
-		final Rectangle2D rect = fm.getStringBounds(text, gg);
-		return new Dimension2DDouble(rect.getWidth(), rect.getHeight());
+		return TextMetricsCache.getInstance().getDimension(getMeasurementGraphics(), font.getFont(), text);
 	}
 
 	private StringBounder getBrailleStringBounder() {
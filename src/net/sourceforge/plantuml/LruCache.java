@@ -0,0 +1,93 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thread-safe map evicting its least recently used entries when the total size
+ * of the values goes above a limit. The size of a value is given by the
+ * subclass, usually as a number of chars.
+ * <p>
+ * The last entry put is always kept, even if it is bigger than the limit on its
+ * own.
+ */
+public abstract class LruCache<K, V> {
+
+	private final Map<K, V> entries = new LinkedHashMap<K, V>(16, 0.75f, true);
+	private final long maxSize;
+	private long totalSize;
+
+	public LruCache(long maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	protected abstract long sizeOf(V value);
+
+	public synchronized V get(K key) {
+		return entries.get(key);
+	}
+
+	public synchronized void put(K key, V value) {
+		final V old = entries.put(key, value);
+		if (old != null) {
+			totalSize -= sizeOf(old);
+		}
+		totalSize += sizeOf(value);
+		// Access order: the entry just put is the last one of the iteration
+		final Iterator<Map.Entry<K, V>> it = entries.entrySet().iterator();
+		while (totalSize > maxSize && entries.size() > 1) {
+			final Map.Entry<K, V> eldest = it.next();
+			totalSize -= sizeOf(eldest.getValue());
+			it.remove();
+		}
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized long getTotalSize() {
+		return totalSize;
+	}
+
+}
@@ -41,13 +41,16 @@ package net.sourceforge.plantuml;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import net.sourceforge.plantuml.activitydiagram.ActivityDiagramFactory;
 import net.sourceforge.plantuml.activitydiagram3.ActivityDiagramFactory3;
 import net.sourceforge.plantuml.api.PSystemFactory;
 import net.sourceforge.plantuml.bpm.BpmDiagramFactory;
 import net.sourceforge.plantuml.classdiagram.ClassDiagramFactory;
+import net.sourceforge.plantuml.command.UmlDiagramFactory;
 import net.sourceforge.plantuml.command.regex.RegexConcat;
 import net.sourceforge.plantuml.core.Diagram;
 import net.sourceforge.plantuml.core.DiagramType;
@@ -122,9 +125,9 @@ public class PSystemBuilder {
 			}
 
 			final DiagramType diagramType = umlSource.getDiagramType();
-			final List<PSystemError> errors = new ArrayList<PSystemError>();
+			final Map<PSystemFactory, PSystemError> errors = new HashMap<PSystemFactory, PSystemError>();
 			final List<PSystemFactory> factories = getAllFactories(skinParam);
-			for (PSystemFactory systemFactory : factories) {
+			for (PSystemFactory systemFactory : PSystemFactoryClassifier.sortByLikelihood(factories, umlSource)) {
 				if (diagramType != systemFactory.getDiagramType()) {
 					continue;
 				}
@@ -133,10 +136,17 @@ public class PSystemBuilder {
 					result = sys;
 					return sys;
 				}
-				errors.add((PSystemError) sys);
+				errors.put(systemFactory, (PSystemError) sys);
 			}
 
-			final PSystemError err = PSystemErrorUtils.merge(errors);
+			// Every factory has been tried: merge errors in the original order
+			final List<PSystemError> allErrors = new ArrayList<PSystemError>();
+			for (PSystemFactory systemFactory : factories) {
+				if (errors.containsKey(systemFactory)) {
+					allErrors.add(errors.get(systemFactory));
+				}
+			}
+			final PSystemError err = PSystemErrorUtils.merge(allErrors);
 			result = err;
 			return err;
 		} finally {
@@ -145,6 +155,7 @@ public class PSystemBuilder {
 			}
 			Log.info("Compilation duration " + (System.currentTimeMillis() - now));
 			RegexConcat.printCacheInfo();
+			UmlDiagramFactory.printDispatchInfo();
 		}
 	}
 
@@ -0,0 +1,245 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.plantuml.activitydiagram.ActivityDiagramFactory;
+import net.sourceforge.plantuml.activitydiagram3.ActivityDiagramFactory3;
+import net.sourceforge.plantuml.api.PSystemFactory;
+import net.sourceforge.plantuml.classdiagram.ClassDiagramFactory;
+import net.sourceforge.plantuml.core.UmlSource;
+import net.sourceforge.plantuml.version.IteratorCounter2;
+
+/**
+ * Cheap pre-parse of a source, used to choose which {@link PSystemFactory}
+ * should parse it first.
+ * <p>
+ * Each significant line is classified by its first token only. A token is
+ * listed here for a factory only if every UML factory placed before it in
+ * {@link PSystemBuilder} rejects a declaration starting with it. So when such a
+ * line is found, all those previous factories would fail anyway, and the latest
+ * voted factory can safely be tried first: the resulting diagram is the same
+ * as with the plain sequential loop.
+ * <p>
+ * Description and state diagrams get no vote: the class diagram accepts their
+ * elements (as packages, with allowmixing...), and the description diagram
+ * accepts the links of state diagrams.
+ * 
+ */
+public final class PSystemFactoryClassifier {
+
+	private static final Map<String, Class<? extends PSystemFactory>> KEYWORDS = new HashMap<String, Class<? extends PSystemFactory>>();
+
+	static {
+		for (String s : new String[] { "class", "abstract", "interface", "enum", "annotation", "namespace", "object",
+				"diamond", "allowmixing" }) {
+			KEYWORDS.put(s, ClassDiagramFactory.class);
+		}
+		KEYWORDS.put("elseif", ActivityDiagramFactory.class);
+		for (String s : new String[] { "start", "stop", "repeat", "while", "fork", "split", "switch" }) {
+			KEYWORDS.put(s, ActivityDiagramFactory3.class);
+		}
+	}
+
+	private static final String CLASS_BODY_OPENERS[] = new String[] { "class", "abstract", "interface", "enum",
+			"annotation", "entity", "object", "map", "json", "struct" };
+
+	private PSystemFactoryClassifier() {
+	}
+
+	/**
+	 * Reorder factories so that the most likely one comes first.
+	 * 
+	 * @return a new list, or <code>factories</code> itself when the source gives
+	 *         no usable hint.
+	 */
+	public static List<PSystemFactory> sortByLikelihood(List<PSystemFactory> factories, UmlSource source) {
+		final List<Class<? extends PSystemFactory>> votes = getVotes(source);
+		if (votes.size() == 0) {
+			return factories;
+		}
+		int best = -1;
+		for (int i = 0; i < factories.size(); i++) {
+			if (votes.contains(factories.get(i).getClass())) {
+				best = i;
+			}
+		}
+		if (best <= 0) {
+			return factories;
+		}
+		final List<PSystemFactory> result = new ArrayList<PSystemFactory>(factories.size());
+		result.add(factories.get(best));
+		for (int i = 0; i < factories.size(); i++) {
+			if (i != best) {
+				result.add(factories.get(i));
+			}
+		}
+		Log.info("Trying first " + factories.get(best).getClass().getSimpleName());
+		return result;
+	}
+
+	static List<Class<? extends PSystemFactory>> getVotes(UmlSource source) {
+		final List<Class<? extends PSystemFactory>> result = new ArrayList<Class<? extends PSystemFactory>>();
+		final IteratorCounter2 it = source.iterator2();
+		String endOfBlock = null;
+		while (it.hasNext()) {
+			final String s = StringUtils.goLowerCase(it.next().getTrimmed().getString());
+			if (s.length() == 0 || s.startsWith("'") || s.startsWith("@")) {
+				continue;
+			}
+			if (endOfBlock != null) {
+				if (isEndOfBlock(s, endOfBlock)) {
+					endOfBlock = null;
+				}
+				continue;
+			}
+			endOfBlock = getEndOfBlock(s);
+			if (endOfBlock != null && endOfBlock.equals(";") == false && isClassBodyOpener(s) == false) {
+				continue;
+			}
+			final Class<? extends PSystemFactory> vote = getVote(s);
+			if (vote != null && result.contains(vote) == false) {
+				result.add(vote);
+			}
+		}
+		return result;
+	}
+
+	private static Class<? extends PSystemFactory> getVote(String s) {
+		final char first = s.charAt(0);
+		if (s.startsWith("(*)")) {
+			return s.length() > 3 ? ActivityDiagramFactory.class : null;
+		}
+		if (first == ':') {
+			return s.endsWith(";") && s.indexOf(':', 1) == -1 ? ActivityDiagramFactory3.class : null;
+		}
+		if (first == '|' && s.length() > 2 && s.endsWith("|") && s.startsWith("||") == false) {
+			return ActivityDiagramFactory3.class;
+		}
+		final String word = getFirstWord(s);
+		if (isDeclaration(s.substring(word.length()).trim()) == false) {
+			return null;
+		}
+		return KEYWORDS.get(word);
+	}
+
+	// After the keyword, an arrow or a colon could make the keyword a plain name:
+	// "class -> b" is a message, "start : int" a member
+	private static boolean isDeclaration(String rest) {
+		if (rest.length() == 0) {
+			return true;
+		}
+		final char c = rest.charAt(0);
+		return Character.isLetterOrDigit(c) || c == '"' || c == '(' || c == '{';
+	}
+
+	private static String getFirstWord(String s) {
+		int i = 0;
+		while (i < s.length() && Character.isLetter(s.charAt(i))) {
+			i++;
+		}
+		if (i < s.length() && Character.isWhitespace(s.charAt(i)) == false && s.charAt(i) != '{') {
+			return "";
+		}
+		return s.substring(0, i);
+	}
+
+	/**
+	 * Detect multi-lines blocks (notes, legends, class bodies...) whose content
+	 * must not be taken as commands.
+	 */
+	private static String getEndOfBlock(String s) {
+		final String word = getFirstWord(s);
+		if (s.endsWith("{") && isClassBodyOpener(s)) {
+			return "}";
+		}
+		if ((word.equals("note") || word.equals("hnote") || word.equals("rnote")) && s.contains(":") == false
+				&& s.contains("\"") == false) {
+			return "end";
+		}
+		if (word.equals("legend")) {
+			return "end";
+		}
+		if (s.equals("title") || s.equals("header") || s.equals("footer") || s.equals("caption")) {
+			return "end";
+		}
+		if (s.startsWith("<style>") && s.contains("</style>") == false) {
+			return "</style>";
+		}
+		if (word.equals("skinparam") && s.endsWith("{")) {
+			return "}";
+		}
+		if (s.charAt(0) == ':' && s.indexOf(':', 1) == -1 && isEndOfActivityLabel(s) == false) {
+			return ";";
+		}
+		return null;
+	}
+
+	private static boolean isEndOfBlock(String s, String endOfBlock) {
+		if (endOfBlock.equals(";")) {
+			return isEndOfActivityLabel(s);
+		}
+		if (endOfBlock.equals("end")) {
+			return s.startsWith("end");
+		}
+		return s.startsWith(endOfBlock);
+	}
+
+	private static boolean isEndOfActivityLabel(String s) {
+		final char last = s.charAt(s.length() - 1);
+		return last == ';' || last == '|' || last == '<' || last == '>' || last == '/' || last == '\\'
+				|| last == ']' || last == '}';
+	}
+
+	private static boolean isClassBodyOpener(String s) {
+		final String word = getFirstWord(s);
+		for (String opener : CLASS_BODY_OPENERS) {
+			if (opener.equals(word)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
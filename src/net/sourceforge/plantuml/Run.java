@@ -64,6 +64,7 @@ import net.sourceforge.plantuml.code.NoPlantumlCompressionException;
 import net.sourceforge.plantuml.code.Transcoder;
 import net.sourceforge.plantuml.code.TranscoderUtil;
 import net.sourceforge.plantuml.command.UmlDiagramFactory;
+import net.sourceforge.plantuml.cucadiagram.dot.GraphvizUtils;
 import net.sourceforge.plantuml.descdiagram.DescriptionDiagramFactory;
 import net.sourceforge.plantuml.ftp.FtpServer;
 import net.sourceforge.plantuml.png.MetadataTag;
@@ -80,6 +81,7 @@ import net.sourceforge.plantuml.swing.MainWindow2;
 import net.sourceforge.plantuml.syntax.LanguageDescriptor;
 import net.sourceforge.plantuml.utils.Cypher;
 import net.sourceforge.plantuml.version.Version;
+import net.sourceforge.plantuml.vizjs.GraphvizJs;
 
 public class Run {
 
@@ -149,6 +151,7 @@ public class Run {
 		}
 
 		forceOpenJdkResourceLoad();
+		GraphvizUtils.probeAsync();
 		if (option.getPreprocessorOutputMode() == OptionPreprocOutputMode.CYPHER) {
 			cypher = new LanguageDescriptor().getCypher();
 		}
@@ -428,6 +431,7 @@ public class Run {
 
 	private static void multithread(final Option option, final ErrorStatus error) throws InterruptedException {
 		Log.info("Using several threads: " + option.getNbThreads());
+		GraphvizJs.setDefaultPoolSize(option.getNbThreads());
 		final ExecutorService executor = Executors.newFixedThreadPool(option.getNbThreads());
 
 		int nb = 0;
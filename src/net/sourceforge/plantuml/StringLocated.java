@@ -81,6 +81,17 @@ final public class StringLocated {
 		this.preprocessorError = preprocessorError;
 	}
 
+	/**
+	 * Same line read from another location. The line type already computed is
+	 * kept.
+	 */
+	public StringLocated withLocation(LineLocation other) {
+		final StringLocated result = new StringLocated(s, other, preprocessorError);
+		result.fox = this.fox;
+		result.type = this.type;
+		return result;
+	}
+
 	public StringLocated withErrorPreprocessor(String preprocessorError) {
 		return new StringLocated(s, location, preprocessorError);
 	}
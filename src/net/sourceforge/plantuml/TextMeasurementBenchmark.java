@@ -0,0 +1,108 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml;
+
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Measures text with 1 to N threads, either on the shared FileFormat.gg or on
+ * the Graphics2D of each thread, and prints the throughput.
+ * 
+ * Usage: <code>TextMeasurementBenchmark [maxThreads] [nbPerThread]</code>
+ */
+public class TextMeasurementBenchmark {
+
+	private static final String WORDS[] = { "Alice", "Bob", "participant", "activate", "return value", "->",
+			"Lorem ipsum dolor sit amet", "consectetur", "adipiscing", "elit", "sed do eiusmod", "tempor" };
+
+	public static void main(String[] args) throws Exception {
+		final int maxThreads = args.length > 0 ? Integer.parseInt(args[0])
+				: Runtime.getRuntime().availableProcessors();
+		final int nbPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 200000;
+		// Warm up
+		run(1, nbPerThread, true);
+		run(1, nbPerThread, false);
+		for (int nbThreads = 1; nbThreads <= maxThreads; nbThreads *= 2) {
+			final double shared = run(nbThreads, nbPerThread, true);
+			final double local = run(nbThreads, nbPerThread, false);
+			System.out.println(String.format("threads=%2d shared=%10.0f/s perThread=%10.0f/s", nbThreads, shared,
+					local));
+		}
+	}
+
+	private static double run(int nbThreads, final int nbPerThread, final boolean shared) throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+		try {
+			final List<Callable<Double>> tasks = new ArrayList<Callable<Double>>();
+			for (int i = 0; i < nbThreads; i++) {
+				final int seed = i;
+				tasks.add(new Callable<Double>() {
+					public Double call() {
+						final Graphics2D g2d = shared ? FileFormat.gg : FileFormat.getMeasurementGraphics();
+						double sum = 0;
+						for (int j = 0; j < nbPerThread; j++) {
+							final Font font = new Font("SansSerif", j % 3 == 0 ? Font.BOLD : Font.PLAIN,
+									10 + (j + seed) % 8);
+							final String text = WORDS[(j + seed) % WORDS.length];
+							sum += g2d.getFontMetrics(font).getStringBounds(text, g2d).getWidth();
+						}
+						return sum;
+					}
+				});
+			}
+			final long start = System.nanoTime();
+			for (Future<Double> f : executor.invokeAll(tasks)) {
+				f.get();
+			}
+			final long duration = System.nanoTime() - start;
+			return 1.0E9 * nbThreads * nbPerThread / duration;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+}
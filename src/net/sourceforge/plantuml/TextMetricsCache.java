@@ -0,0 +1,234 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Text dimensions measured with Java2D, shared by all string bounders.
+ * 
+ * Short strings are kept in a bounded cache, split in several locked LRU
+ * segments. Long strings seldom come back: their width is the sum of the
+ * advances of their characters, kept for the most recently used fonts. This is what Java2D itself
+ * computes for fonts without layout attributes and characters below U+0300, so
+ * the result is the same.
+ */
+public final class TextMetricsCache {
+
+	private static final int NB_SEGMENTS = 16;
+	private static final int MAX_PER_SEGMENT = 1024;
+	private static final int MAX_FONTS = 256;
+	private static final int LONG_TEXT = 40;
+	private static final char FIRST_COMPLEX_CHAR = (char) 0x300;
+
+	private static final TextMetricsCache singleton = new TextMetricsCache();
+
+	private final Segment segments[] = new Segment[NB_SEGMENTS];
+	private final Lru<Font, Advances> advances = new Lru<Font, Advances>(MAX_FONTS);
+
+	private final AtomicLong nbHit = new AtomicLong();
+	private final AtomicLong nbMiss = new AtomicLong();
+	private final AtomicLong nbGlyphSum = new AtomicLong();
+
+	private TextMetricsCache() {
+		for (int i = 0; i < NB_SEGMENTS; i++) {
+			segments[i] = new Segment();
+		}
+	}
+
+	public static TextMetricsCache getInstance() {
+		return singleton;
+	}
+
+	static class Lru<K, V> extends LinkedHashMap<K, V> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int max;
+
+		Lru(int max) {
+			super(64, 0.75f, true);
+			this.max = max;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+			return size() > max;
+		}
+	}
+
+	static class Segment extends Lru<Key, Dimension2DDouble> {
+
+		private static final long serialVersionUID = 1L;
+
+		Segment() {
+			super(MAX_PER_SEGMENT);
+		}
+	}
+
+	static class Key {
+
+		private final Font font;
+		private final String text;
+		private final int hash;
+
+		Key(Font font, String text) {
+			this.font = font;
+			this.text = text;
+			this.hash = font.hashCode() * 31 + text.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			final Key other = (Key) obj;
+			return hash == other.hash && text.equals(other.text) && font.equals(other.font);
+		}
+	}
+
+	/**
+	 * Advances of the characters below U+0300 for one font, filled lazily.
+	 */
+	static class Advances {
+
+		private final float width[] = new float[FIRST_COMPLEX_CHAR];
+		private final double height;
+
+		Advances(double height) {
+			this.height = height;
+			Arrays.fill(width, Float.NaN);
+		}
+	}
+
+	public Dimension2DDouble getDimension(Graphics2D gg, Font font, String text) {
+		if (text.length() >= LONG_TEXT && font.hasLayoutAttributes() == false && isSimple(text)) {
+			nbGlyphSum.incrementAndGet();
+			return getDimensionByGlyphs(gg, font, text);
+		}
+		final Key key = new Key(font, text);
+		final Segment segment = segments[(key.hash ^ (key.hash >>> 16)) & (NB_SEGMENTS - 1)];
+		synchronized (segment) {
+			final Dimension2DDouble result = segment.get(key);
+			if (result != null) {
+				nbHit.incrementAndGet();
+				return result;
+			}
+		}
+		nbMiss.incrementAndGet();
+		final Dimension2DDouble result = measure(gg, font, text);
+		synchronized (segment) {
+			segment.put(key, result);
+		}
+		return result;
+	}
+
+	private static Dimension2DDouble measure(Graphics2D gg, Font font, String text) {
+		final FontMetrics fm = gg.getFontMetrics(font);
+		final Rectangle2D rect = fm.getStringBounds(text, gg);
+		return new Dimension2DDouble(rect.getWidth(), rect.getHeight());
+	}
+
+	private static boolean isSimple(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) >= FIRST_COMPLEX_CHAR) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private Dimension2DDouble getDimensionByGlyphs(Graphics2D gg, Font font, String text) {
+		Advances table;
+		synchronized (advances) {
+			table = advances.get(font);
+		}
+		if (table == null) {
+			table = new Advances(measure(gg, font, " ").getHeight());
+			synchronized (advances) {
+				advances.put(font, table);
+			}
+		}
+		// Summed as floats, in order, like Java2D does
+		float width = 0;
+		for (int i = 0; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			float w = table.width[c];
+			if (Float.isNaN(w)) {
+				w = (float) measure(gg, font, String.valueOf(c)).getWidth();
+				table.width[c] = w;
+			}
+			width += w;
+		}
+		return new Dimension2DDouble(width, table.height);
+	}
+
+	public long getNbHit() {
+		return nbHit.get();
+	}
+
+	public long getNbMiss() {
+		return nbMiss.get();
+	}
+
+	public long getNbGlyphSum() {
+		return nbGlyphSum.get();
+	}
+
+	@Override
+	public String toString() {
+		final int nbFonts;
+		synchronized (advances) {
+			nbFonts = advances.size();
+		}
+		return "TextMetricsCache hit=" + nbHit + " miss=" + nbMiss + " glyphSum=" + nbGlyphSum + " fonts=" + nbFonts;
+	}
+
+}
@@ -97,13 +97,19 @@ public class ClassDiagramFactory extends UmlDiagramFactory {
 		return new ClassDiagram(skinParam);
 	}
 
+	@Override
+	protected List<Command> createSkinDependentCommands() {
+		final List<Command> cmds = new ArrayList<Command>();
+		cmds.add(new CommandNewpage(this));
+		return cmds;
+	}
+
 	@Override
 	protected List<Command> createCommands() {
 		final List<Command> cmds = new ArrayList<Command>();
 		cmds.add(new CommandFootboxIgnored());
 
 		cmds.add(new CommandRankDir());
-		cmds.add(new CommandNewpage(this));
 
 		cmds.add(new CommandPage());
 		cmds.add(new CommandAddMethod());
@@ -49,6 +49,7 @@ import net.sourceforge.plantuml.UrlBuilder;
 import net.sourceforge.plantuml.UrlBuilder.ModeUrl;
 import net.sourceforge.plantuml.command.CommandExecutionResult;
 import net.sourceforge.plantuml.command.SingleLineCommand2;
+import net.sourceforge.plantuml.command.regex.FastPathLinkClass;
 import net.sourceforge.plantuml.command.regex.RegexConcat;
 import net.sourceforge.plantuml.command.regex.RegexLeaf;
 import net.sourceforge.plantuml.command.regex.RegexOptional;
@@ -73,7 +74,7 @@ final public class CommandLinkClass extends SingleLineCommand2<AbstractClassOrOb
 	private static final String COUPLE = "\\([%s]*(" + SINGLE + ")[%s]*,[%s]*(" + SINGLE + ")[%s]*\\)";
 
 	public CommandLinkClass(UmlDiagramType umlDiagramType) {
-		super(getRegexConcat(umlDiagramType));
+		super(new FastPathLinkClass(getRegexConcat(umlDiagramType)));
 	}
 
 	static private RegexConcat getRegexConcat(UmlDiagramType umlDiagramType) {
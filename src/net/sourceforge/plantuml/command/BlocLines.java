@@ -128,6 +128,10 @@ public class BlocLines implements Iterable<StringLocated> {
 		return new BlocLines(result);
 	}
 
+	static BlocLines create(List<StringLocated> lines) {
+		return new BlocLines(new ArrayList<StringLocated>(lines));
+	}
+
 	public BlocLines() {
 		this(new ArrayList<StringLocated>());
 	}
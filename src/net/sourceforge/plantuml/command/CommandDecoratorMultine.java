@@ -87,6 +87,10 @@ public class CommandDecoratorMultine<D extends Diagram> implements Command<D> {
 		return cmd.getDescription();
 	}
 
+	String getFirstLineRegex() {
+		return cmd.getFirstLineRegex();
+	}
+
 	public int getNbMaxLines() {
 		return nbMaxLines;
 	}
@@ -82,6 +82,34 @@ public abstract class CommandMultilines<S extends Diagram> implements Command<S>
 		return CommandControl.OK;
 	}
 
+	MultilinesRecognizer createRecognizer() {
+		final Pattern2 ending = MyPattern.cmpile(getPatternEnd());
+		return new MultilinesRecognizer() {
+			private Boolean startOk;
+
+			@Override
+			CommandControl check() {
+				if (isCommandForbidden()) {
+					return CommandControl.NOT_OK;
+				}
+				if (startOk == null) {
+					startOk = starting.matcher(getFirst().getTrimmed().getString()).matches();
+				}
+				if (startOk == false) {
+					return CommandControl.NOT_OK;
+				}
+				if (size() == 1) {
+					return CommandControl.OK_PARTIAL;
+				}
+				if (ending.matcher(getLast().getTrimmed().getString()).matches() == false) {
+					return CommandControl.OK_PARTIAL;
+				}
+				actionIfCommandValid();
+				return CommandControl.OK;
+			}
+		};
+	}
+
 	protected boolean isCommandForbidden() {
 		return false;
 	}
@@ -89,6 +117,10 @@ public abstract class CommandMultilines<S extends Diagram> implements Command<S>
 	protected void actionIfCommandValid() {
 	}
 
+	String getFirstLineRegex() {
+		return starting.pattern();
+	}
+
 	protected final Pattern2 getStartingPattern() {
 		return starting;
 	}
@@ -43,6 +43,8 @@ import net.sourceforge.plantuml.StringLocated;
 import net.sourceforge.plantuml.command.regex.IRegex;
 import net.sourceforge.plantuml.command.regex.Matcher2;
 import net.sourceforge.plantuml.command.regex.MyPattern;
+import net.sourceforge.plantuml.command.regex.Pattern2;
+import net.sourceforge.plantuml.command.regex.RegexComposed;
 import net.sourceforge.plantuml.core.Diagram;
 
 public abstract class CommandMultilines2<S extends Diagram> implements Command<S> {
@@ -115,6 +117,64 @@ public abstract class CommandMultilines2<S extends Diagram> implements Command<S
 
 	protected abstract CommandExecutionResult executeNow(S system, BlocLines lines);
 
+	MultilinesRecognizer createRecognizer() {
+		final Pattern2 ending = MyPattern.cmpile(getPatternEnd());
+		return new MultilinesRecognizer(strategy) {
+			private StringLocated movedFirst;
+			private StringLocated startChecked;
+			private boolean startOk;
+
+			@Override
+			CommandControl check() {
+				if (isCommandForbidden()) {
+					return CommandControl.NOT_OK;
+				}
+				StringLocated first = getFirstKept();
+				StringLocated last = getLastKept();
+				int nb = getNbKept();
+				if (syntaxWithFinalBracket()) {
+					if (nb == 1 && first.getTrimmed().getString().endsWith("{") == false) {
+						final String vline = first.getString() + " {";
+						if (isValid(BlocLines.singleString(vline)) == CommandControl.OK_PARTIAL) {
+							return CommandControl.OK_PARTIAL;
+						}
+						return CommandControl.NOT_OK;
+					}
+					// Same as BlocLines.eventuallyMoveBracket()
+					if (nb >= 2 && first.getTrimmed().getString().endsWith("{") == false
+							&& getSecondKept().getTrimmed().getString().equals("{")) {
+						if (movedFirst == null) {
+							movedFirst = first.append(" {");
+						}
+						first = movedFirst;
+						nb--;
+						if (nb == 1) {
+							last = first;
+						}
+					}
+				}
+				if (first == null) {
+					return CommandControl.NOT_OK;
+				}
+				if (first != startChecked) {
+					startChecked = first;
+					startOk = starting.match(first.getTrimmed());
+				}
+				if (startOk == false) {
+					return CommandControl.NOT_OK;
+				}
+				if (nb == 1) {
+					return CommandControl.OK_PARTIAL;
+				}
+				if (ending.matcher(last.getTrimmed().getString()).matches() == false) {
+					return CommandControl.OK_PARTIAL;
+				}
+				actionIfCommandValid();
+				return CommandControl.OK;
+			}
+		};
+	}
+
 	protected boolean isCommandForbidden() {
 		return false;
 	}
@@ -122,6 +182,13 @@ public abstract class CommandMultilines2<S extends Diagram> implements Command<S
 	protected void actionIfCommandValid() {
 	}
 
+	String getFirstLineRegex() {
+		if (starting instanceof RegexComposed) {
+			return starting.getPattern();
+		}
+		return null;
+	}
+
 	protected final IRegex getStartingPattern() {
 		return starting;
 	}
@@ -41,6 +41,7 @@ package net.sourceforge.plantuml.command;
 
 import net.sourceforge.plantuml.StringLocated;
 import net.sourceforge.plantuml.command.regex.IRegex;
+import net.sourceforge.plantuml.command.regex.RegexComposed;
 import net.sourceforge.plantuml.command.regex.RegexConcat;
 import net.sourceforge.plantuml.core.Diagram;
 
@@ -98,6 +99,37 @@ public abstract class CommandMultilines3<S extends Diagram> implements Command<S
 
 	protected abstract CommandExecutionResult executeNow(S system, BlocLines lines);
 
+	MultilinesRecognizer createRecognizer() {
+		return new MultilinesRecognizer(strategy) {
+			private Boolean startOk;
+
+			@Override
+			CommandControl check() {
+				if (isCommandForbidden()) {
+					return CommandControl.NOT_OK;
+				}
+				final StringLocated first = getFirstKept();
+				if (first == null) {
+					return CommandControl.NOT_OK;
+				}
+				if (startOk == null) {
+					startOk = starting.match(first.getTrimmed());
+				}
+				if (startOk == false) {
+					return CommandControl.NOT_OK;
+				}
+				if (getNbKept() == 1) {
+					return CommandControl.OK_PARTIAL;
+				}
+				if (getPatternEnd2().match(getLastKept().getTrimmed()) == false) {
+					return CommandControl.OK_PARTIAL;
+				}
+				actionIfCommandValid();
+				return CommandControl.OK;
+			}
+		};
+	}
+
 	protected boolean isCommandForbidden() {
 		return false;
 	}
@@ -105,6 +137,13 @@ public abstract class CommandMultilines3<S extends Diagram> implements Command<S
 	protected void actionIfCommandValid() {
 	}
 
+	String getFirstLineRegex() {
+		if (starting instanceof RegexComposed) {
+			return starting.getPattern();
+		}
+		return null;
+	}
+
 	protected final IRegex getStartingPattern() {
 		return starting;
 	}
@@ -67,6 +67,10 @@ public abstract class CommandMultilinesBracket<S extends Diagram> implements Com
 	protected void actionIfCommandValid() {
 	}
 
+	String getFirstLineRegex() {
+		return starting.pattern();
+	}
+
 	protected final Pattern2 getStartingPattern() {
 		return starting;
 	}
@@ -108,5 +112,58 @@ public abstract class CommandMultilinesBracket<S extends Diagram> implements Com
 		return CommandControl.OK;
 	}
 
+	MultilinesRecognizer createRecognizer() {
+		return new MultilinesRecognizer() {
+			private Boolean startOk;
+			private int level = 1;
+			private boolean inconsistent;
+
+			@Override
+			protected void lineAdded(StringLocated line) {
+				if (size() == 1 || inconsistent) {
+					return;
+				}
+				final String s = line.getTrimmed().getString();
+				if (isLineConsistent(s, level) == false) {
+					inconsistent = true;
+					return;
+				}
+				if (s.endsWith("{")) {
+					level++;
+				}
+				if (s.endsWith("}")) {
+					level--;
+				}
+				if (level < 0) {
+					inconsistent = true;
+				}
+			}
+
+			@Override
+			CommandControl check() {
+				if (isCommandForbidden()) {
+					return CommandControl.NOT_OK;
+				}
+				if (startOk == null) {
+					startOk = starting.matcher(getFirst().getTrimmed().getString()).matches();
+				}
+				if (startOk == false) {
+					return CommandControl.NOT_OK;
+				}
+				if (size() == 1) {
+					return CommandControl.OK_PARTIAL;
+				}
+				if (inconsistent) {
+					return CommandControl.NOT_OK;
+				}
+				if (level != 0) {
+					return CommandControl.OK_PARTIAL;
+				}
+				actionIfCommandValid();
+				return CommandControl.OK;
+			}
+		};
+	}
+
 	protected abstract boolean isLineConsistent(String line, int level);
 }
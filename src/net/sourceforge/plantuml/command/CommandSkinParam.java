@@ -41,6 +41,7 @@ package net.sourceforge.plantuml.command;
 
 import net.sourceforge.plantuml.LineLocation;
 import net.sourceforge.plantuml.UmlDiagram;
+import net.sourceforge.plantuml.command.regex.FastPathSkinParam;
 import net.sourceforge.plantuml.command.regex.IRegex;
 import net.sourceforge.plantuml.command.regex.RegexConcat;
 import net.sourceforge.plantuml.command.regex.RegexLeaf;
@@ -49,7 +50,7 @@ import net.sourceforge.plantuml.command.regex.RegexResult;
 public class CommandSkinParam extends SingleLineCommand2<UmlDiagram> {
 
 	public CommandSkinParam() {
-		super(getRegexConcat());
+		super(new FastPathSkinParam(getRegexConcat()));
 	}
 
 	static IRegex getRegexConcat() {
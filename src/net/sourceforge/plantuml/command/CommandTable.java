@@ -0,0 +1,152 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml.command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import net.sourceforge.plantuml.StringLocated;
+
+/**
+ * Immutable list of commands, indexed by the first character of the trimmed
+ * line.
+ * <p>
+ * For each command, the regular expression of its first line is tested against
+ * every ASCII character. If the regex fails without needing more input, no line
+ * starting with this character can be recognized by the command, which is then
+ * left out of this character bucket. Buckets keep the original order of the
+ * commands, so the first matching command is still the one that wins.
+ * 
+ */
+final class CommandTable {
+
+	private static final int SIZE = 128;
+
+	private final List<Command> all;
+	private final List<List<Command>> buckets = new ArrayList<List<Command>>(SIZE);
+
+	CommandTable(List<Command> commands) {
+		this.all = Collections.unmodifiableList(new ArrayList<Command>(commands));
+		final List<boolean[]> firsts = new ArrayList<boolean[]>();
+		for (Command cmd : all) {
+			firsts.add(getPossibleFirstChars(cmd));
+		}
+		for (int c = 0; c < SIZE; c++) {
+			final List<Command> bucket = new ArrayList<Command>();
+			for (int i = 0; i < all.size(); i++) {
+				if (firsts.get(i)[c]) {
+					bucket.add(all.get(i));
+				}
+			}
+			buckets.add(Collections.unmodifiableList(bucket));
+		}
+	}
+
+	public List<Command> getAll() {
+		return all;
+	}
+
+	/**
+	 * Return, in priority order, the commands that may recognize this line.
+	 */
+	public List<Command> getCandidates(StringLocated line) {
+		final String s = line.getTrimmed().getString();
+		if (s.length() == 0 || s.charAt(0) >= SIZE) {
+			return all;
+		}
+		final List<Command> result = buckets.get(s.charAt(0));
+		assert checkSkipped(line, result);
+		return result;
+	}
+
+	private boolean checkSkipped(StringLocated line, List<Command> candidates) {
+		final BlocLines single = BlocLines.single(line);
+		for (Command cmd : all) {
+			if (candidates.contains(cmd) || cmd instanceof CommandDecoratorMultine) {
+				continue;
+			}
+			if (cmd.isValid(single) != CommandControl.NOT_OK) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean[] getPossibleFirstChars(Command cmd) {
+		final boolean result[] = new boolean[SIZE];
+		final Pattern p = getFirstLinePattern(cmd);
+		for (int c = 0; c < SIZE; c++) {
+			if (p == null) {
+				result[c] = true;
+			} else {
+				final Matcher m = p.matcher(String.valueOf((char) c));
+				result[c] = m.find() || m.hitEnd();
+			}
+		}
+		return result;
+	}
+
+	private static Pattern getFirstLinePattern(Command cmd) {
+		final String regex;
+		if (cmd instanceof SingleLineCommand2) {
+			regex = ((SingleLineCommand2) cmd).getFirstLineRegex();
+		} else if (cmd instanceof CommandDecoratorMultine) {
+			regex = ((CommandDecoratorMultine) cmd).getFirstLineRegex();
+		} else if (cmd instanceof CommandMultilines) {
+			regex = ((CommandMultilines) cmd).getFirstLineRegex();
+		} else if (cmd instanceof CommandMultilines2) {
+			regex = ((CommandMultilines2) cmd).getFirstLineRegex();
+		} else if (cmd instanceof CommandMultilines3) {
+			regex = ((CommandMultilines3) cmd).getFirstLineRegex();
+		} else if (cmd instanceof CommandMultilinesBracket) {
+			regex = ((CommandMultilinesBracket) cmd).getFirstLineRegex();
+		} else {
+			regex = null;
+		}
+		if (regex == null) {
+			return null;
+		}
+		return Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+	}
+
+}
@@ -0,0 +1,150 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml.command;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sourceforge.plantuml.StringLocated;
+
+/**
+ * Recognizes a multi-line command while its lines are read.
+ * <p>
+ * {@link #check()} gives the same answer as {@link Command#isValid(BlocLines)}
+ * called with all the lines added so far. Multi-line commands keep the state
+ * they need (first and last kept lines, bracket level...) up to date in
+ * {@link #lineAdded(StringLocated)}, so that each line of a long body is looked
+ * at only once instead of rebuilding and rescanning the whole block for every
+ * new line.
+ */
+abstract class MultilinesRecognizer {
+
+	private final List<StringLocated> lines = new ArrayList<StringLocated>();
+	private final MultilinesStrategy strategy;
+
+	private int nbKept;
+	private StringLocated firstKept;
+	private StringLocated secondKept;
+	private StringLocated lastKept;
+
+	MultilinesRecognizer() {
+		this(MultilinesStrategy.KEEP_STARTING_QUOTE);
+	}
+
+	MultilinesRecognizer(MultilinesStrategy strategy) {
+		this.strategy = strategy;
+	}
+
+	static MultilinesRecognizer create(final Command<?> cmd) {
+		if (cmd instanceof CommandMultilines) {
+			return ((CommandMultilines<?>) cmd).createRecognizer();
+		}
+		if (cmd instanceof CommandMultilines2) {
+			return ((CommandMultilines2<?>) cmd).createRecognizer();
+		}
+		if (cmd instanceof CommandMultilines3) {
+			return ((CommandMultilines3<?>) cmd).createRecognizer();
+		}
+		if (cmd instanceof CommandMultilinesBracket) {
+			return ((CommandMultilinesBracket<?>) cmd).createRecognizer();
+		}
+		return new MultilinesRecognizer() {
+			@Override
+			CommandControl check() {
+				return cmd.isValid(getLines());
+			}
+		};
+	}
+
+	final void add(StringLocated line) {
+		lines.add(line);
+		if (strategy.isRemoved(line) == false) {
+			nbKept++;
+			if (firstKept == null) {
+				firstKept = line;
+			} else if (secondKept == null) {
+				secondKept = line;
+			}
+			lastKept = line;
+		}
+		lineAdded(line);
+	}
+
+	protected void lineAdded(StringLocated line) {
+	}
+
+	abstract CommandControl check();
+
+	final BlocLines getLines() {
+		return BlocLines.create(lines);
+	}
+
+	final int size() {
+		return lines.size();
+	}
+
+	final StringLocated getFirst() {
+		return lines.get(0);
+	}
+
+	final StringLocated getLast() {
+		return lines.get(lines.size() - 1);
+	}
+
+	/**
+	 * Number of lines left after {@link BlocLines#cleanList(MultilinesStrategy)}.
+	 */
+	final int getNbKept() {
+		return nbKept;
+	}
+
+	final StringLocated getFirstKept() {
+		return firstKept;
+	}
+
+	final StringLocated getSecondKept() {
+		return secondKept;
+	}
+
+	final StringLocated getLastKept() {
+		return lastKept;
+	}
+
+}
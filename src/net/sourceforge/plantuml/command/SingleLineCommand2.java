@@ -42,6 +42,8 @@ package net.sourceforge.plantuml.command;
 import net.sourceforge.plantuml.LineLocation;
 import net.sourceforge.plantuml.StringLocated;
 import net.sourceforge.plantuml.command.regex.IRegex;
+import net.sourceforge.plantuml.command.regex.RegexComposed;
+import net.sourceforge.plantuml.command.regex.RegexFastPath;
 import net.sourceforge.plantuml.command.regex.RegexResult;
 import net.sourceforge.plantuml.core.Diagram;
 import net.sourceforge.plantuml.error.PSystemError;
@@ -63,6 +65,21 @@ public abstract class SingleLineCommand2<S extends Diagram> implements Command<S
 		this.pattern = pattern;
 	}
 
+	/**
+	 * Regular expression the (trimmed) first line must match, or
+	 * <code>null</code> if unknown. Used by {@link CommandTable} to index commands.
+	 */
+	String getFirstLineRegex() {
+		if (doTrim && (pattern instanceof RegexComposed || pattern instanceof RegexFastPath)) {
+			return pattern.getPattern();
+		}
+		return null;
+	}
+
+	public final IRegex getPattern() {
+		return pattern;
+	}
+
 	public boolean syntaxWithFinalBracket() {
 		return false;
 	}
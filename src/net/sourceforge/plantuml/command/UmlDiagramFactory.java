@@ -43,14 +43,19 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import net.sourceforge.plantuml.AbstractPSystem;
 import net.sourceforge.plantuml.ErrorUml;
 import net.sourceforge.plantuml.ErrorUmlType;
 import net.sourceforge.plantuml.LineLocation;
+import net.sourceforge.plantuml.Log;
 import net.sourceforge.plantuml.StringLocated;
 import net.sourceforge.plantuml.classdiagram.command.CommandHideShowByGender;
 import net.sourceforge.plantuml.classdiagram.command.CommandHideShowByVisibility;
+import net.sourceforge.plantuml.command.regex.RegexConcat;
 import net.sourceforge.plantuml.core.Diagram;
 import net.sourceforge.plantuml.core.DiagramType;
 import net.sourceforge.plantuml.core.UmlSource;
@@ -65,7 +70,12 @@ import net.sourceforge.plantuml.version.IteratorCounter2;
 
 public abstract class UmlDiagramFactory extends PSystemAbstractFactory {
 
-	private List<Command> cmds;
+	private static final ConcurrentMap<Class<? extends UmlDiagramFactory>, CommandTable> commandTables = new ConcurrentHashMap<Class<? extends UmlDiagramFactory>, CommandTable>();
+
+	private static final AtomicLong nbLines = new AtomicLong();
+	private static final AtomicLong nbCommandsTried = new AtomicLong();
+
+	private List<Command> skinDependentCmds;
 
 	protected UmlDiagramFactory() {
 		this(DiagramType.UML);
@@ -155,10 +165,20 @@ public abstract class UmlDiagramFactory extends PSystemAbstractFactory {
 
 	private Step getCandidate(final IteratorCounter2 it) {
 		final BlocLines single = BlocLines.single(it.peek());
-		if (cmds == null) {
-			cmds = createCommands();
+		if (skinDependentCmds == null) {
+			skinDependentCmds = createSkinDependentCommands();
 		}
+		nbLines.incrementAndGet();
+		final Step step = getCandidate(it, single, skinDependentCmds);
+		if (step != null) {
+			return step;
+		}
+		return getCandidate(it, single, getCommandTable().getCandidates(it.peek()));
+	}
+
+	private Step getCandidate(final IteratorCounter2 it, final BlocLines single, List<Command> cmds) {
 		for (Command cmd : cmds) {
+			nbCommandsTried.incrementAndGet();
 			final CommandControl result = cmd.isValid(single);
 			if (result == CommandControl.OK) {
 				it.next();
@@ -179,16 +199,16 @@ public abstract class UmlDiagramFactory extends PSystemAbstractFactory {
 	}
 
 	private BlocLines isMultilineCommandOk(IteratorCounter2 it, Command cmd) {
-		BlocLines lines = new BlocLines();
+		final MultilinesRecognizer recognizer = MultilinesRecognizer.create(cmd);
 		int nb = 0;
 		while (it.hasNext()) {
-			lines = addOneSingleLineManageEmbedded2(it, lines);
-			final CommandControl result = cmd.isValid(lines);
+			addOneSingleLineManageEmbedded2(it, recognizer);
+			final CommandControl result = recognizer.check();
 			if (result == CommandControl.NOT_OK) {
 				return null;
 			}
 			if (result == CommandControl.OK) {
-				return lines;
+				return recognizer.getLines();
 			}
 			nb++;
 			if (cmd instanceof CommandDecoratorMultine && nb > ((CommandDecoratorMultine) cmd).getNbMaxLines()) {
@@ -198,25 +218,60 @@ public abstract class UmlDiagramFactory extends PSystemAbstractFactory {
 		return null;
 	}
 
-	private BlocLines addOneSingleLineManageEmbedded2(IteratorCounter2 it, BlocLines lines) {
+	private void addOneSingleLineManageEmbedded2(IteratorCounter2 it, MultilinesRecognizer recognizer) {
 		final StringLocated linetoBeAdded = it.next();
-		lines = lines.add(linetoBeAdded);
+		recognizer.add(linetoBeAdded);
 		if (linetoBeAdded.getTrimmed().getString().equals("{{")) {
 			while (it.hasNext()) {
 				final StringLocated s = it.next();
-				lines = lines.add(s);
+				recognizer.add(s);
 				if (s.getTrimmed().getString().equals("}}")) {
-					return lines;
+					return;
 				}
 			}
 		}
-		return lines;
+	}
+
+	/**
+	 * Return the commands of this kind of diagram. They are built only once per
+	 * factory class and shared by every factory instance, in all threads.
+	 */
+	private CommandTable getCommandTable() {
+		final Class<? extends UmlDiagramFactory> key = getClass();
+		CommandTable result = commandTables.get(key);
+		if (result == null) {
+			commandTables.putIfAbsent(key, new CommandTable(createCommands()));
+			result = commandTables.get(key);
+		}
+		return result;
+	}
+
+	public static void printDispatchInfo() {
+		final long lines = nbLines.get();
+		if (lines > 0) {
+			final long evaluations = RegexConcat.getNbEvaluations();
+			Log.info("Lines/commands tried/regex evaluations " + lines + "/" + nbCommandsTried.get() + "/"
+					+ evaluations + " (" + (evaluations / lines) + " regex per line)");
+		}
 	}
 
 	// -----------------------------------
 
+	/**
+	 * Create the commands of this kind of diagram. The result is shared between
+	 * all diagrams, so the commands must be stateless and must not depend on this
+	 * factory instance: such commands go to {@link #createSkinDependentCommands()}.
+	 */
 	protected abstract List<Command> createCommands();
 
+	/**
+	 * Create the commands bound to this factory instance (and so to its skin
+	 * parameters). They are tried before the shared commands.
+	 */
+	protected List<Command> createSkinDependentCommands() {
+		return Collections.emptyList();
+	}
+
 	public abstract AbstractPSystem createEmptyDiagram();
 
 	final protected void addCommonCommands1(List<Command> cmds) {
@@ -276,7 +331,10 @@ public abstract class UmlDiagramFactory extends PSystemAbstractFactory {
 
 	final public List<String> getDescription() {
 		final List<String> result = new ArrayList<String>();
-		for (Command cmd : createCommands()) {
+		for (Command cmd : createSkinDependentCommands()) {
+			result.addAll(Arrays.asList(cmd.getDescription()));
+		}
+		for (Command cmd : getCommandTable().getAll()) {
 			result.addAll(Arrays.asList(cmd.getDescription()));
 		}
 		return Collections.unmodifiableList(result);
@@ -0,0 +1,143 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml.command.regex;
+
+/**
+ * Scanner for simple links such as <code>Foo <|-- Bar</code> or
+ * <code>Foo --> Bar : label</code>, mirroring the regex of
+ * {@link net.sourceforge.plantuml.classdiagram.command.CommandLinkClass}.
+ */
+public final class FastPathLinkClass extends RegexFastPath {
+
+	public FastPathLinkClass(IRegex regex) {
+		super(regex);
+	}
+
+	@Override
+	protected boolean scan(String s, Groups groups) {
+		if (hasLineTerminator(s)) {
+			return false;
+		}
+		final int endEnt1 = skipIdentifier(s, 0);
+		if (endEnt1 == 0) {
+			return false;
+		}
+
+		int i = skipSpaces(s, endEnt1);
+		final int startHead1 = i;
+		if (startsWith(s, i, '<', '|') && isBody(s, i + 2)) {
+			i += 2;
+		} else if (i < s.length() && ")#<*+^}".indexOf(s.charAt(i)) != -1 && isBody(s, i + 1)) {
+			i++;
+		}
+		final int startBody = i;
+		while (isBody(s, i)) {
+			i++;
+		}
+		if (i == startBody) {
+			return false;
+		}
+		final int endBody = i;
+		if (startsWith(s, i, '|', '>')) {
+			i += 2;
+		} else if (i < s.length() && ">*+^#".indexOf(s.charAt(i)) != -1) {
+			i++;
+		} else if (i < s.length() && isSpace(s.charAt(i)) == false) {
+			return false;
+		}
+		final int endHead2 = i;
+
+		final int startEnt2 = skipSpaces(s, i);
+		final int endEnt2 = skipIdentifier(s, startEnt2);
+		if (endEnt2 == startEnt2) {
+			return false;
+		}
+		i = skipSpaces(s, endEnt2);
+		String label = null;
+		if (i < s.length()) {
+			if (s.charAt(i) != ':') {
+				return false;
+			}
+			i = skipSpaces(s, i + 1);
+			if (i == s.length()) {
+				return false;
+			}
+			label = s.substring(i);
+		}
+
+		groups.set("ENT1", s.substring(0, endEnt1));
+		if (startBody > startHead1) {
+			groups.set("ARROW_HEAD1", s.substring(startHead1, startBody));
+		}
+		groups.set("ARROW_BODY1", s.substring(startBody, endBody));
+		groups.set("ARROW_BODY2", "");
+		if (endHead2 > endBody) {
+			groups.set("ARROW_HEAD2", s.substring(endBody, endHead2));
+		}
+		groups.set("ENT2", s.substring(startEnt2, endEnt2));
+		groups.set("LABEL_LINK", label);
+		return true;
+	}
+
+	private static boolean startsWith(String s, int i, char c1, char c2) {
+		return i + 1 < s.length() && s.charAt(i) == c1 && s.charAt(i + 1) == c2;
+	}
+
+	private static boolean isBody(String s, int i) {
+		if (i >= s.length()) {
+			return false;
+		}
+		final char c = s.charAt(i);
+		return c == '-' || c == '=' || c == '.';
+	}
+
+	// Qualified names and package separators are left to the regex
+	private static int skipIdentifier(String s, int i) {
+		final int start = i;
+		while (i < s.length() && (isLetterOrDigit(s.charAt(i)) || s.charAt(i) == '$')) {
+			i++;
+		}
+		if (i < s.length() && (s.charAt(i) == '.' || s.charAt(i) == '\\' || startsWith(s, i, ':', ':'))) {
+			return start;
+		}
+		return i;
+	}
+
+}
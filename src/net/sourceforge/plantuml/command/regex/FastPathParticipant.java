@@ -0,0 +1,102 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml.command.regex;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Scanner for plain <code>participant Bob</code> lines, mirroring the regex of
+ * {@link net.sourceforge.plantuml.sequencediagram.command.CommandParticipantA}.
+ */
+public final class FastPathParticipant extends RegexFastPath {
+
+	private static final List<String> TYPES = Arrays.asList("participant", "actor", "boundary", "control", "entity",
+			"queue", "database", "collections");
+
+	public FastPathParticipant(IRegex regex) {
+		super(regex);
+	}
+
+	@Override
+	protected boolean scan(String s, Groups groups) {
+		if (hasLineTerminator(s)) {
+			return false;
+		}
+		int i = 0;
+		while (i < s.length() && isSpace(s.charAt(i)) == false) {
+			i++;
+		}
+		if (isType(s, i) == false) {
+			return false;
+		}
+		final int startCode = skipSpaces(s, i);
+		if (startCode == i) {
+			return false;
+		}
+		int endCode = startCode;
+		while (endCode < s.length() && isCodeChar(s.charAt(endCode))) {
+			endCode++;
+		}
+		if (endCode == startCode || endCode != s.length()) {
+			return false;
+		}
+		groups.set("TYPE", s.substring(0, i));
+		groups.set("CODE", s.substring(startCode, endCode));
+		return true;
+	}
+
+	private static boolean isType(String s, int len) {
+		for (String type : TYPES) {
+			if (type.length() == len && startsWithIgnoreCase(s, 0, type)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * <code>[\p{L}0-9_.@]</code>
+	 */
+	static boolean isCodeChar(char c) {
+		return isLetterOrDigit(c) || c == '.' || c == '@';
+	}
+
+}
@@ -0,0 +1,141 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml.command.regex;
+
+/**
+ * Scanner for simple sequence messages such as <code>Alice -> Bob : hello</code>
+ * or <code>Bob <<-- Alice</code>, mirroring the regex of
+ * {@link net.sourceforge.plantuml.sequencediagram.command.CommandArrow}.
+ */
+public final class FastPathSequenceArrow extends RegexFastPath {
+
+	public FastPathSequenceArrow(IRegex regex) {
+		super(regex);
+	}
+
+	@Override
+	protected boolean scan(String s, Groups groups) {
+		if (hasLineTerminator(s)) {
+			return false;
+		}
+		final int endCode1 = skipCode(s, 0);
+		if (endCode1 == 0) {
+			return false;
+		}
+
+		int i = skipSpaces(s, endCode1);
+		final int startDressing1 = i;
+		if (i < s.length() && s.charAt(i) == '<') {
+			i++;
+			if (i < s.length() && s.charAt(i) == '<') {
+				i++;
+			}
+		}
+		final int startBody = i;
+		while (i < s.length() && s.charAt(i) == '-') {
+			i++;
+		}
+		if (i == startBody) {
+			return false;
+		}
+		final int endBody = i;
+		if (i < s.length() && s.charAt(i) == '>') {
+			i++;
+			if (i < s.length() && s.charAt(i) == '>') {
+				i++;
+			}
+			if (i + 1 < s.length() && isHeadModifier(s.charAt(i)) && isSpace(s.charAt(i + 1))) {
+				return false;
+			}
+		} else if (i < s.length() && (isHeadModifier(s.charAt(i)) || s.charAt(i) == '/' || s.charAt(i) == '\\')) {
+			return false;
+		}
+		final int endDressing2 = i;
+
+		final int startCode2 = skipSpaces(s, i);
+		final int endCode2 = skipCode(s, startCode2);
+		if (endCode2 == startCode2) {
+			return false;
+		}
+		i = skipSpaces(s, endCode2);
+		String message = null;
+		if (i < s.length()) {
+			if (s.charAt(i) != ':') {
+				return false;
+			}
+			message = s.substring(skipSpaces(s, i + 1));
+		}
+
+		final String code1 = s.substring(0, endCode1);
+		groups.set("PART1", code1);
+		groups.set("PART1CODE", code1);
+		if (startBody > startDressing1) {
+			groups.set("ARROW_DRESSING1", s.substring(startDressing1, startBody));
+		}
+		groups.set("ARROW_BODYA1", s.substring(startBody, endBody));
+		groups.set("ARROW_BODYB1", "");
+		if (endDressing2 > endBody) {
+			groups.set("ARROW_DRESSING2", s.substring(endBody, endDressing2));
+		}
+		final String code2 = s.substring(startCode2, endCode2);
+		groups.set("PART2", code2);
+		groups.set("PART2CODE", code2);
+		groups.set("MESSAGE", message);
+		return true;
+	}
+
+	private static boolean isHeadModifier(char c) {
+		return c == 'o' || c == 'x' || c == 'O' || c == 'X';
+	}
+
+	// A code followed by an anchor or any separator other than a space is left to
+	// the regex
+	private static int skipCode(String s, int i) {
+		final int start = i;
+		while (i < s.length() && FastPathParticipant.isCodeChar(s.charAt(i))) {
+			i++;
+		}
+		if (i < s.length() && s.charAt(i) == '{') {
+			return start;
+		}
+		return i;
+	}
+
+}
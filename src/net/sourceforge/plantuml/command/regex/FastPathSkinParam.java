@@ -0,0 +1,91 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml.command.regex;
+
+/**
+ * Scanner for <code>skinparam name value</code> lines, mirroring the regex of
+ * {@link net.sourceforge.plantuml.command.CommandSkinParam}.
+ */
+public final class FastPathSkinParam extends RegexFastPath {
+
+	public FastPathSkinParam(IRegex regex) {
+		super(regex);
+	}
+
+	@Override
+	protected boolean scan(String s, Groups groups) {
+		if (hasLineTerminator(s)) {
+			return false;
+		}
+		int i;
+		if (startsWithIgnoreCase(s, 0, "skinparamlocked")) {
+			i = "skinparamlocked".length();
+		} else if (startsWithIgnoreCase(s, 0, "skinparam")) {
+			i = "skinparam".length();
+		} else {
+			return false;
+		}
+		final String type = s.substring(0, i);
+		final int startName = skipSpaces(s, i);
+		if (startName == i) {
+			return false;
+		}
+		int endName = startName;
+		while (endName < s.length() && (isWordChar(s.charAt(endName)) || s.charAt(endName) == '.')) {
+			endName++;
+		}
+		if (endName == startName) {
+			return false;
+		}
+		final int startValue = skipSpaces(s, endName);
+		if (startValue == endName) {
+			return false;
+		}
+		final String value = s.substring(startValue);
+		if (value.indexOf('{') != -1 || value.indexOf('}') != -1) {
+			return false;
+		}
+		groups.set("TYPE", type);
+		groups.set("NAME", s.substring(startName, endName));
+		groups.set("VALUE", value);
+		return true;
+	}
+
+}
@@ -46,6 +46,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 
@@ -54,6 +55,7 @@ import net.sourceforge.plantuml.StringLocated;
 public abstract class RegexComposed implements IRegex {
 
 	protected static final AtomicInteger nbCreateMatches = new AtomicInteger();
+	protected static final AtomicLong nbEvaluations = new AtomicLong();
 	private final List<IRegex> partials;
 
 	protected final List<IRegex> partials() {
@@ -104,6 +106,7 @@ public abstract class RegexComposed implements IRegex {
 	}
 
 	public RegexResult matcher(String s) {
+		nbEvaluations.incrementAndGet();
 		final Matcher2 matcher = getPattern2().matcher(s);
 		if (matcher.find() == false) {
 			return null;
@@ -114,6 +117,7 @@ public abstract class RegexComposed implements IRegex {
 	}
 
 	public boolean match(StringLocated s) {
+		nbEvaluations.incrementAndGet();
 		return getPattern2().matcher(s.getString()).find();
 	}
 
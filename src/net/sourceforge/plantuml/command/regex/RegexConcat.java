@@ -66,6 +66,11 @@ public final class RegexConcat extends RegexComposed implements IRegex {
 		}
 		Log.info("Regex total/invoked/compiled " + cache.size() + "/" + nbInvoked + "/" + nbCompiled);
 		Log.info("Matches created " + nbCreateMatches.get());
+		RegexFastPath.printInfo();
+	}
+
+	public static long getNbEvaluations() {
+		return nbEvaluations.get();
 	}
 
 	public RegexConcat(IRegex... partials) {
@@ -0,0 +1,258 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml.command.regex;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.sourceforge.plantuml.Log;
+import net.sourceforge.plantuml.StringLocated;
+
+/**
+ * Hand-written scanner placed in front of a {@link RegexConcat}.
+ * <p>
+ * Whether a line matches is always decided by the regular expression. The
+ * scanner only recognizes the most common shapes of a command and, for a line
+ * the regular expression has just accepted in {@link #match(StringLocated)},
+ * fills the very same groups the regular expression would have captured, so
+ * that the resulting {@link RegexResult} cannot be told apart. This saves the
+ * second matching done by {@link #matcher(String)}. For anything else, the
+ * regular expression is used.
+ * <p>
+ * {@link RegexFastPathCheck} compares both on sample files.
+ */
+public abstract class RegexFastPath implements IRegex {
+
+	private static final AtomicLong nbScanned = new AtomicLong();
+	private static final AtomicLong nbFallback = new AtomicLong();
+
+	private final IRegex regex;
+	private final Map<String, Integer> firstGroups = new HashMap<String, Integer>();
+	private final int nbGroups;
+	// Last line accepted by the regular expression
+	private volatile String lastMatch;
+
+	protected RegexFastPath(IRegex regex) {
+		this.regex = regex;
+		this.nbGroups = indexGroups(regex, 0);
+	}
+
+	public static void printInfo() {
+		Log.info("Fast path scanned/fallback " + nbScanned.get() + "/" + nbFallback.get());
+	}
+
+	/**
+	 * Scans a (trimmed) line.
+	 * 
+	 * @return <code>false</code> if the line is outside of the shapes handled here.
+	 *         It does not mean that the regular expression won't match it.
+	 */
+	protected abstract boolean scan(String s, Groups groups);
+
+	public final String getPattern() {
+		return regex.getPattern();
+	}
+
+	public final int count() {
+		return regex.count();
+	}
+
+	public final Map<String, RegexPartialMatch> createPartialMatch(Iterator<String> it) {
+		return regex.createPartialMatch(it);
+	}
+
+	public final boolean match(StringLocated full) {
+		final boolean result = regex.match(full);
+		if (result) {
+			lastMatch = full.getString();
+		}
+		return result;
+	}
+
+	public final RegexResult matcher(String full) {
+		if (full.equals(lastMatch)) {
+			final RegexResult result = scanResult(full);
+			if (result != null) {
+				nbScanned.incrementAndGet();
+				assert sameResult(result, regex.matcher(full)) : full;
+				return result;
+			}
+		}
+		nbFallback.incrementAndGet();
+		return regex.matcher(full);
+	}
+
+	/**
+	 * Groups found by the scanner alone, or <code>null</code> if the line is
+	 * outside of the shapes it handles.
+	 */
+	final RegexResult scanResult(String full) {
+		final Groups groups = new Groups();
+		if (scan(full, groups) == false) {
+			return null;
+		}
+		return new RegexResult(regex.createPartialMatch(Arrays.asList(groups.values).iterator()));
+	}
+
+	final IRegex getRegex() {
+		return regex;
+	}
+
+	static boolean sameResult(RegexResult fast, RegexResult slow) {
+		if (slow == null) {
+			return false;
+		}
+		return fast.toString().equals(slow.toString());
+	}
+
+	// Walks the tree the same way createPartialMatch() consumes groups
+	private int indexGroups(IRegex part, int index) {
+		if (part instanceof RegexLeaf) {
+			final RegexLeaf leaf = (RegexLeaf) part;
+			if (leaf.getName() != null) {
+				firstGroups.put(leaf.getName(), index);
+			}
+			return index + leaf.count();
+		}
+		if (part instanceof RegexOr && ((RegexOr) part).getName() != null) {
+			firstGroups.put(((RegexOr) part).getName(), index);
+			index++;
+		}
+		for (IRegex p : ((RegexComposed) part).getPartials()) {
+			index = indexGroups(p, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Captured groups, addressed by the name of the regex part holding them.
+	 * Groups which are not set are <code>null</code>, as non participating groups.
+	 */
+	protected final class Groups {
+
+		private final String[] values = new String[nbGroups];
+
+		public void set(String name, String value) {
+			set(name, 0, value);
+		}
+
+		public void set(String name, int num, String value) {
+			values[firstGroups.get(name) + num] = value;
+		}
+	}
+
+	// Character classes, as compiled by MyPattern with CASE_INSENSITIVE
+
+	/**
+	 * <code>[%s]</code>
+	 */
+	protected static boolean isSpace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r' || c == '\u00A0';
+	}
+
+	/**
+	 * <code>[%g]</code>
+	 */
+	protected static boolean isDoubleQuote(char c) {
+		return c == '\"' || c == '\u201c' || c == '\u201d' || c == '\u00ab' || c == '\u00bb';
+	}
+
+	/**
+	 * <code>[\p{L}0-9_]</code>
+	 */
+	protected static boolean isLetterOrDigit(char c) {
+		return (c >= '0' && c <= '9') || c == '_' || Character.isLetter(c);
+	}
+
+	/**
+	 * <code>\w</code>
+	 */
+	protected static boolean isWordChar(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+	}
+
+	/**
+	 * Characters that <code>.</code> and <code>$</code> handle specially. Lines
+	 * containing them are always left to the regular expression.
+	 */
+	protected static boolean hasLineTerminator(String s) {
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+			if (c == '\n' || c == '\r' || c == '\u0085' || c == 0x2028 || c == 0x2029) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Case insensitive comparison restricted to US-ASCII, as done by the regex
+	 * engine without UNICODE_CASE.
+	 */
+	protected static boolean startsWithIgnoreCase(String s, int i, String word) {
+		if (i + word.length() > s.length()) {
+			return false;
+		}
+		for (int j = 0; j < word.length(); j++) {
+			if (toLowerAscii(s.charAt(i + j)) != word.charAt(j)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static char toLowerAscii(char c) {
+		if (c >= 'A' && c <= 'Z') {
+			return (char) (c + ('a' - 'A'));
+		}
+		return c;
+	}
+
+	protected static int skipSpaces(String s, int i) {
+		while (i < s.length() && isSpace(s.charAt(i))) {
+			i++;
+		}
+		return i;
+	}
+
+}
@@ -0,0 +1,138 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml.command.regex;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sourceforge.plantuml.StringLocated;
+import net.sourceforge.plantuml.UmlDiagramType;
+import net.sourceforge.plantuml.classdiagram.command.CommandLinkClass;
+import net.sourceforge.plantuml.command.CommandSkinParam;
+import net.sourceforge.plantuml.command.SingleLineCommand2;
+import net.sourceforge.plantuml.sequencediagram.command.CommandArrow;
+import net.sourceforge.plantuml.sequencediagram.command.CommandParticipantA;
+
+/**
+ * Runs every {@link RegexFastPath} scanner and its regular expression on each
+ * line of some sample files, and fails if the scanner accepts a line the
+ * regular expression rejects, or captures other groups.
+ * 
+ * Usage: <code>RegexFastPathCheck file-or-directory...</code>
+ */
+public class RegexFastPathCheck {
+
+	private final List<RegexFastPath> fastPaths = new ArrayList<RegexFastPath>();
+	private int nbLines;
+	private int nbScanned;
+	private int nbMismatches;
+
+	public static void main(String[] args) throws IOException {
+		final RegexFastPathCheck check = new RegexFastPathCheck();
+		for (String arg : args) {
+			check.checkFile(new File(arg));
+		}
+		System.out.println("lines=" + check.nbLines + " scanned=" + check.nbScanned + " mismatches="
+				+ check.nbMismatches);
+		if (check.nbMismatches > 0) {
+			System.exit(1);
+		}
+	}
+
+	private RegexFastPathCheck() {
+		add(new CommandLinkClass(UmlDiagramType.CLASS));
+		add(new CommandArrow());
+		add(new CommandParticipantA());
+		add(new CommandSkinParam());
+	}
+
+	private void add(SingleLineCommand2<?> command) {
+		fastPaths.add((RegexFastPath) command.getPattern());
+	}
+
+	private void checkFile(File file) throws IOException {
+		if (file.isDirectory()) {
+			final File children[] = file.listFiles();
+			if (children != null) {
+				for (File child : children) {
+					checkFile(child);
+				}
+			}
+			return;
+		}
+		final BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+		try {
+			String s;
+			while ((s = br.readLine()) != null) {
+				checkLine(file, new StringLocated(s, null).getTrimmed().getString());
+			}
+		} finally {
+			br.close();
+		}
+	}
+
+	private void checkLine(File file, String line) {
+		nbLines++;
+		for (RegexFastPath fastPath : fastPaths) {
+			final RegexResult fast = fastPath.scanResult(line);
+			if (fast == null) {
+				continue;
+			}
+			nbScanned++;
+			final IRegex regex = fastPath.getRegex();
+			if (regex.match(new StringLocated(line, null)) == false) {
+				mismatch(file, line, fastPath, "accepted by the scanner only");
+			} else if (RegexFastPath.sameResult(fast, regex.matcher(line)) == false) {
+				mismatch(file, line, fastPath, "groups differ " + fast + " " + regex.matcher(line));
+			}
+		}
+	}
+
+	private void mismatch(File file, String line, RegexFastPath fastPath, String message) {
+		nbMismatches++;
+		System.err.println(file + ": " + fastPath.getClass().getSimpleName() + " " + message + ": " + line);
+	}
+
+}
@@ -58,6 +58,10 @@ public class RegexOr extends RegexComposed implements IRegex {
 		this.name = name;
 	}
 
+	String getName() {
+		return name;
+	}
+
 	@Override
 	protected String getFullSlow() {
 		final StringBuilder sb = new StringBuilder("(");
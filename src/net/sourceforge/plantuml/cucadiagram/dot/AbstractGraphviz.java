@@ -55,6 +55,7 @@ abstract class AbstractGraphviz implements Graphviz {
 	private final File dotExe;
 	private final String dotString;
 	private final String[] type;
+	private boolean workerPoolAllowed;
 
 	static boolean isWindows() {
 		return File.separatorChar == '\\';
@@ -82,7 +83,36 @@ abstract class AbstractGraphviz implements Graphviz {
 		this.type = type;
 	}
 
+	final void allowWorkerPool() {
+		this.workerPoolAllowed = true;
+	}
+
+	private static class DotExeSearch {
+		private final String key;
+		private final File dotExe;
+
+		private DotExeSearch(String key, File dotExe) {
+			this.key = key;
+			this.dotExe = dotExe;
+		}
+	}
+
+	private static volatile DotExeSearch lastSearch;
+
 	private File searchDotExe() {
+		// Scanning the PATH costs a few file checks per diagram: the result is kept
+		// while the settings stay the same and the executable is still there
+		final String key = GraphvizUtils.getenvGraphvizDot() + SFile.pathSeparator + System.getenv("PATH");
+		final DotExeSearch last = lastSearch;
+		if (last != null && last.key.equals(key) && last.dotExe != null && last.dotExe.exists()) {
+			return last.dotExe;
+		}
+		final File result = searchDotExeSlow();
+		lastSearch = new DotExeSearch(key, result);
+		return result;
+	}
+
+	private File searchDotExeSlow() {
 		String getenv = GraphvizUtils.getenvGraphvizDot();
 		if (getenv == null) {
 			getenv = findExecutableOnPath(getExeName());
@@ -108,6 +138,16 @@ abstract class AbstractGraphviz implements Graphviz {
 			throw new IllegalStateException();
 		}
 		final String cmd[] = getCommandLine();
+		final int poolSize = GraphvizUtils.getenvDotPoolSize();
+		if (poolSize > 0 && workerPoolAllowed && Arrays.equals(type, new String[] { "svg" })
+				&& OptionFlags.getInstance().isCheckDotError() == false && DotWorkerPool.isSingleGraph(dotString)) {
+			Log.info("DotString size: " + dotString.length());
+			final ProcessState state = DotWorkerPool.getInstance(cmd, poolSize).run(dotString.getBytes(), os);
+			if (state != null) {
+				return state;
+			}
+			Log.info("Unexpected output from Graphviz worker, using a new process");
+		}
 		ProcessRunner p = null;
 		ProcessState state = null;
 		try {
@@ -145,7 +185,7 @@ abstract class AbstractGraphviz implements Graphviz {
 	}
 
 	final public ExeState getExeState() {
-		return ExeState.checkFile(dotExe);
+		return GraphvizVersions.getInstance().getExeState(dotExe);
 	}
 
 	final public String dotVersion() {
@@ -0,0 +1,369 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml.cucadiagram.dot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.plantuml.Log;
+import net.sourceforge.plantuml.OptionFlags;
+
+/**
+ * Long-lived dot processes, each one rendering graphs one after the other from
+ * its standard input.
+ * 
+ * After each graph, a tiny separator graph is sent twice. Dot may need to read
+ * the beginning of the next graph before rendering the current one: the
+ * separators provide it, so the output of a job never waits for the next job.
+ * Separators are numbered, so that a job whose graph produced no SVG at all is
+ * detected when its own first separator comes back. Everything up to this
+ * separator belongs to the job: a worker giving anything else is destroyed, and
+ * the job has to be run by a new process.
+ * 
+ * Only a single complete graph can be sent: several graphs would give several
+ * documents, and an unterminated one would swallow the separators.
+ */
+final class DotWorkerPool {
+
+	private static final int MAX_JOBS_PER_WORKER = 200;
+	private static final String SEPARATOR_PREFIX = "plantumlworkerseparator";
+
+	private static final Map<String, DotWorkerPool> pools = new HashMap<String, DotWorkerPool>();
+
+	private final String[] cmd;
+	private final Semaphore available;
+	private final Deque<Worker> idle = new ArrayDeque<Worker>();
+
+	private DotWorkerPool(String[] cmd, int size) {
+		this.cmd = cmd;
+		this.available = new Semaphore(size, true);
+	}
+
+	static synchronized DotWorkerPool getInstance(String[] cmd, int size) {
+		final String key = size + " " + Arrays.asList(cmd);
+		DotWorkerPool result = pools.get(key);
+		if (result == null) {
+			result = new DotWorkerPool(cmd, size);
+			pools.put(key, result);
+		}
+		return result;
+	}
+
+	/**
+	 * True if the DOT string is exactly one graph, whose braces, quotes and HTML
+	 * labels are all closed. Comments are not expected in generated DOT, so they
+	 * are refused.
+	 */
+	static boolean isSingleGraph(String dot) {
+		int depth = 0;
+		int html = 0;
+		boolean quoted = false;
+		boolean closed = false;
+		boolean lineStart = true;
+		for (int i = 0; i < dot.length(); i++) {
+			final char c = dot.charAt(i);
+			if (quoted) {
+				if (c == '\\') {
+					i++;
+				} else if (c == '"') {
+					quoted = false;
+				}
+			} else if (html > 0) {
+				if (c == '<') {
+					html++;
+				} else if (c == '>') {
+					html--;
+				}
+			} else if (closed) {
+				if (Character.isWhitespace(c) == false) {
+					return false;
+				}
+			} else if (c == '#' && lineStart) {
+				return false;
+			} else if (c == '/' && i + 1 < dot.length() && (dot.charAt(i + 1) == '/' || dot.charAt(i + 1) == '*')) {
+				return false;
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == '<') {
+				html = 1;
+			} else if (c == '{') {
+				depth++;
+			} else if (c == '}') {
+				depth--;
+				if (depth < 0) {
+					return false;
+				}
+				closed = depth == 0;
+			}
+			lineStart = c == '\n' || (lineStart && Character.isWhitespace(c));
+		}
+		return closed;
+	}
+
+	/**
+	 * Renders a graph, or returns <code>null</code> if the worker gave something
+	 * unexpected.
+	 */
+	public ProcessState run(byte in[], OutputStream redirection) {
+		try {
+			available.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return ProcessState.TIMEOUT();
+		}
+		Worker worker = null;
+		try {
+			worker = borrow();
+			return worker.run(in, redirection, OptionFlags.getInstance().getTimeoutMs());
+		} catch (IOException e) {
+			e.printStackTrace();
+			return ProcessState.IO_EXCEPTION1(e);
+		} finally {
+			giveBack(worker);
+			available.release();
+		}
+	}
+
+	private Worker borrow() throws IOException {
+		synchronized (idle) {
+			while (idle.size() > 0) {
+				final Worker worker = idle.removeFirst();
+				if (worker.isAlive()) {
+					return worker;
+				}
+				worker.destroy();
+			}
+		}
+		Log.info("Starting Graphviz worker " + Arrays.asList(cmd));
+		return new Worker(cmd);
+	}
+
+	private void giveBack(Worker worker) {
+		if (worker == null) {
+			return;
+		}
+		if (worker.isAlive() && worker.nbJobs < MAX_JOBS_PER_WORKER) {
+			synchronized (idle) {
+				idle.addFirst(worker);
+			}
+		} else {
+			worker.destroy();
+		}
+	}
+
+	static class Worker {
+
+		private static final byte[] END = new byte[0];
+		private static final byte[] SVG_END = "</svg>\n".getBytes();
+
+		private final Process process;
+		private final BlockingQueue<byte[]> outputs = new LinkedBlockingQueue<byte[]>();
+		private volatile boolean ended;
+		private int nbJobs;
+
+		Worker(String[] cmd) throws IOException {
+			this.process = Runtime.getRuntime().exec(cmd);
+			startDaemon(new Runnable() {
+				public void run() {
+					readOutputs(process.getInputStream());
+				}
+			});
+			startDaemon(new Runnable() {
+				public void run() {
+					readErrors(process.getErrorStream());
+				}
+			});
+		}
+
+		private static void startDaemon(Runnable runnable) {
+			final Thread thread = new Thread(runnable, "Graphviz worker");
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		// Each SVG document ends with a </svg> line
+		private void readOutputs(InputStream is) {
+			final ByteArrayOutputStream current = new ByteArrayOutputStream();
+			int matched = 0;
+			try {
+				int read;
+				while ((read = is.read()) != -1) {
+					current.write(read);
+					if (read == SVG_END[matched]) {
+						matched++;
+					} else {
+						matched = read == SVG_END[0] ? 1 : 0;
+					}
+					if (matched == SVG_END.length) {
+						outputs.add(current.toByteArray());
+						current.reset();
+						matched = 0;
+					}
+				}
+			} catch (IOException e) {
+				Log.info("Graphviz worker " + e);
+			} finally {
+				ended = true;
+				outputs.add(END);
+			}
+		}
+
+		private void readErrors(InputStream is) {
+			final StringBuilder line = new StringBuilder();
+			try {
+				int read;
+				while ((read = is.read()) != -1) {
+					if (read == '\n') {
+						Log.info("Graphviz worker error stream : " + line);
+						line.setLength(0);
+					} else {
+						line.append((char) read);
+					}
+				}
+			} catch (IOException e) {
+				Log.info("Graphviz worker " + e);
+			}
+		}
+
+		boolean isAlive() {
+			if (ended) {
+				return false;
+			}
+			try {
+				process.exitValue();
+				return false;
+			} catch (IllegalThreadStateException e) {
+				return true;
+			}
+		}
+
+		void destroy() {
+			ended = true;
+			process.destroy();
+		}
+
+		ProcessState run(byte in[], OutputStream redirection, long timeoutMs) {
+			nbJobs++;
+			final int separator = nbJobs;
+			try {
+				final OutputStream os = process.getOutputStream();
+				os.write(in);
+				final byte[] sep = ("\ndigraph " + SEPARATOR_PREFIX + separator + " {}\n").getBytes();
+				os.write(sep);
+				os.write(sep);
+				os.flush();
+			} catch (IOException e) {
+				e.printStackTrace();
+				destroy();
+				return ProcessState.IO_EXCEPTION2(e);
+			}
+			final long limit = System.currentTimeMillis() + timeoutMs;
+			byte[] result = null;
+			try {
+				while (true) {
+					final long wait = limit - System.currentTimeMillis();
+					final byte[] svg = wait > 0 ? outputs.poll(wait, TimeUnit.MILLISECONDS) : null;
+					if (svg == null) {
+						destroy();
+						return ProcessState.TIMEOUT();
+					}
+					if (svg == END) {
+						if (result != null) {
+							return null;
+						}
+						// Dot has stopped, as a single process would have on a bad graph
+						return ProcessState.TERMINATED_OK();
+					}
+					final int num = getSeparatorNumber(svg);
+					if (num == separator) {
+						// Our own graph may not have produced anything
+						if (result != null) {
+							redirection.write(result);
+						}
+						return ProcessState.TERMINATED_OK();
+					}
+					if (num == -1 && result == null) {
+						result = svg;
+					} else if (num != separator - 1 || result != null) {
+						// Only the second separator of the previous job can come before ours
+						Log.info("Unexpected output from Graphviz worker");
+						destroy();
+						return null;
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				destroy();
+				return ProcessState.TIMEOUT();
+			} catch (IOException e) {
+				e.printStackTrace();
+				return ProcessState.IO_EXCEPTION2(e);
+			}
+		}
+
+		private static int getSeparatorNumber(byte[] svg) {
+			final String s = new String(svg);
+			final int x = s.indexOf("<title>" + SEPARATOR_PREFIX);
+			if (x == -1) {
+				return -1;
+			}
+			int i = x + "<title>".length() + SEPARATOR_PREFIX.length();
+			int result = 0;
+			while (i < s.length() && Character.isDigit(s.charAt(i))) {
+				result = result * 10 + s.charAt(i) - '0';
+				i++;
+			}
+			return result;
+		}
+
+	}
+
+}
@@ -93,6 +93,18 @@ public class GraphvizUtils {
 		return result;
 	}
 
+	/**
+	 * Same as create(), for a DOT string generated by PlantUML itself: being a
+	 * single well-formed graph, it may be rendered by a long-lived dot process.
+	 */
+	public static Graphviz createForSvek(ISkinParam skinParam, String dotString, String... type) {
+		final Graphviz result = create(skinParam, dotString, type);
+		if (result instanceof AbstractGraphviz) {
+			((AbstractGraphviz) result).allowWorkerPool();
+		}
+		return result;
+	}
+
 	private static boolean useVizJs(ISkinParam skinParam) {
 		if (skinParam != null && skinParam.isUseVizJs() && VizJsEngine.isOk()) {
 			return true;
@@ -144,6 +156,30 @@ public class GraphvizUtils {
 		return 4096;
 	}
 
+	/**
+	 * Number of long-lived dot processes used to render SVG. 0, the default,
+	 * starts a new process for each diagram.
+	 */
+	public static int getenvDotPoolSize() {
+		final String env = SecurityUtils.getenv("PLANTUML_DOT_POOL_SIZE");
+		if (StringUtils.isNotEmpty(env) && env.matches("\\d+")) {
+			return Integer.parseInt(env);
+		}
+		return 0;
+	}
+
+	/**
+	 * Number of VizJs engines, each one in its own thread. 0, the default, uses
+	 * the number of threads given on the command line.
+	 */
+	public static int getenvVizJsPoolSize() {
+		final String env = SecurityUtils.getenv("PLANTUML_VIZJS_POOL_SIZE");
+		if (StringUtils.isNotEmpty(env) && env.matches("\\d+")) {
+			return Integer.parseInt(env);
+		}
+		return 0;
+	}
+
 	public static String getenvDefaultConfigFilename() {
 		return SecurityUtils.getenv("PLANTUML_DEFAULT_CONFIG_FILENAME");
 	}
@@ -152,19 +188,24 @@ public class GraphvizUtils {
 		return SecurityUtils.getenv("PLANTUML_LOGDATA");
 	}
 
-	private static String dotVersion = null;
-
 	public static String dotVersion() throws IOException, InterruptedException {
-		if (dotVersion == null) {
-			final File dotExe = GraphvizUtils.getDotExe();
-			final ExeState exeState = ExeState.checkFile(dotExe);
-			if (exeState == ExeState.OK) {
-				dotVersion = create(null, "png").dotVersion();
-			} else {
-				dotVersion = "Error:" + exeState.getTextMessage(dotExe);
-			}
+		final File dotExe = GraphvizUtils.getDotExe();
+		final ExeState exeState = GraphvizVersions.getInstance().getExeState(dotExe);
+		if (exeState == ExeState.OK) {
+			return GraphvizVersions.getInstance().getFullVersion(dotExe);
+		}
+		return "Error:" + exeState.getTextMessage(dotExe);
+	}
+
+	/**
+	 * Looks for the dot executable and starts probing its version in the
+	 * background. Meant to be called once at startup.
+	 */
+	public static void probeAsync() {
+		if (useVizJs(null)) {
+			return;
 		}
-		return dotVersion;
+		GraphvizVersions.getInstance().probeAsync(getDotExe());
 	}
 
 	public static int retrieveVersion(String s) {
@@ -220,7 +261,7 @@ public class GraphvizUtils {
 			}
 			result.add("Dot executable is " + dotExe);
 		}
-		final ExeState exeState = ExeState.checkFile(dotExe);
+		final ExeState exeState = GraphvizVersions.getInstance().getExeState(dotExe);
 
 		if (exeState == ExeState.OK) {
 			try {
@@ -75,7 +75,10 @@ public class GraphvizVersionFinder {
 	}
 
 	public GraphvizVersion getVersion() {
-		final String dotVersion = dotVersion();
+		return getVersion(dotVersion());
+	}
+
+	static GraphvizVersion getVersion(String dotVersion) {
 		final Pattern p = Pattern.compile("\\d\\.\\d\\d");
 		final Matcher m = p.matcher(dotVersion);
 		final boolean find = m.find();
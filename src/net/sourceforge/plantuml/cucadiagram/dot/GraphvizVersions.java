@@ -40,14 +40,23 @@
 package net.sourceforge.plantuml.cucadiagram.dot;
 
 import java.io.File;
-import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
+import net.sourceforge.plantuml.Log;
+
+/**
+ * State and version of each dot executable, probed once and kept until the
+ * file is modified.
+ */
 public class GraphvizVersions {
 
 	private final static GraphvizVersions singleton = new GraphvizVersions();
 
-	private final Map<File, GraphvizVersion> map = new ConcurrentHashMap<File, GraphvizVersion>();
+	private final ConcurrentMap<File, Probe> map = new ConcurrentHashMap<File, Probe>();
 
 	private GraphvizVersions() {
 	}
@@ -56,22 +65,96 @@ public class GraphvizVersions {
 		return singleton;
 	}
 
+	private static class Probe {
+
+		private final long lastModified;
+		private final ExeState exeState;
+		private final FutureTask<String> fullVersion;
+		private volatile GraphvizVersion version;
+
+		private Probe(final File f, long lastModified) {
+			this.lastModified = lastModified;
+			this.exeState = ExeState.checkFile(f);
+			this.fullVersion = new FutureTask<String>(new Callable<String>() {
+				public String call() {
+					return new GraphvizVersionFinder(f).dotVersion();
+				}
+			});
+		}
+
+		private String getFullVersion() {
+			// Does nothing if the probe is already running or done
+			fullVersion.run();
+			try {
+				return fullVersion.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return "?";
+			} catch (ExecutionException e) {
+				Log.error("Cannot run dot -V " + e.getCause());
+				return "?";
+			}
+		}
+
+		private GraphvizVersion getVersion() {
+			if (version == null) {
+				version = GraphvizVersionFinder.getVersion(getFullVersion());
+			}
+			return version;
+		}
+	}
+
+	// Concurrent callers always end up with the same probe, so dot -V runs once
+	private Probe getProbe(File f) {
+		final long lastModified = f.lastModified();
+		while (true) {
+			final Probe current = map.get(f);
+			if (current != null && current.lastModified == lastModified) {
+				return current;
+			}
+			final Probe probe = new Probe(f, lastModified);
+			if (current == null ? map.putIfAbsent(f, probe) == null : map.replace(f, current, probe)) {
+				return probe;
+			}
+		}
+	}
+
+	public ExeState getExeState(File f) {
+		if (f == null) {
+			return ExeState.NULL_UNDEFINED;
+		}
+		return getProbe(f).exeState;
+	}
+
 	public GraphvizVersion getVersion(File f) {
 		if (f == null) {
 			return null;
 		}
-		GraphvizVersion result = map.get(f);
-		if (result != null) {
-			return result;
-		}
-		result = checkVersionSlow(f.getAbsolutePath());
-		map.put(f, result);
-		return result;
+		return getProbe(f).getVersion();
+	}
+
+	/**
+	 * Complete output of <code>dot -V</code>, computed once per executable.
+	 */
+	public String getFullVersion(File f) {
+		return getProbe(f).getFullVersion();
 	}
 
-	static GraphvizVersion checkVersionSlow(String pathExecutable) {
-		final GraphvizVersionFinder finder = new GraphvizVersionFinder(new File(pathExecutable));
-		return finder.getVersion();
+	/**
+	 * Runs <code>dot -V</code> in a background thread, so that the first diagram
+	 * does not wait for it.
+	 */
+	public void probeAsync(File f) {
+		if (f == null) {
+			return;
+		}
+		final Probe probe = getProbe(f);
+		if (probe.exeState != ExeState.OK) {
+			return;
+		}
+		final Thread thread = new Thread(probe.fullVersion, "Graphviz version");
+		thread.setDaemon(true);
+		thread.start();
 	}
 
 }
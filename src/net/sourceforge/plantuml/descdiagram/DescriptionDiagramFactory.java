@@ -79,6 +79,13 @@ public class DescriptionDiagramFactory extends UmlDiagramFactory {
 		return new DescriptionDiagram(skinParam);
 	}
 
+	@Override
+	protected List<Command> createSkinDependentCommands() {
+		final List<Command> cmds = new ArrayList<Command>();
+		cmds.add(new CommandNewpage(this));
+		return cmds;
+	}
+
 	@Override
 	protected List<Command> createCommands() {
 		final List<Command> cmds = new ArrayList<Command>();
@@ -86,7 +93,6 @@ public class DescriptionDiagramFactory extends UmlDiagramFactory {
 		cmds.add(new CommandFootboxIgnored());
 		cmds.add(new CommandNamespaceSeparator());
 		cmds.add(new CommandRankDir());
-		cmds.add(new CommandNewpage(this));
 		addCommonCommands1(cmds);
 
 		cmds.add(new CommandPage());
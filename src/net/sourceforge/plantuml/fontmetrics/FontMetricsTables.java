@@ -0,0 +1,166 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml.fontmetrics;
+
+import java.awt.Font;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.InflaterInputStream;
+
+import net.sourceforge.plantuml.Dimension2DDouble;
+import net.sourceforge.plantuml.Log;
+import net.sourceforge.plantuml.StringUtils;
+import net.sourceforge.plantuml.security.SecurityUtils;
+
+/**
+ * Advances of characters for a few common fonts, measured once by
+ * {@link FontMetricsTablesGenerator} and shipped as a resource. Text can be
+ * measured without initializing the font system, and gives the same result
+ * whatever fonts are installed.
+ * 
+ * Text measured by PlantUML does not use kerning: the width of a string is the
+ * sum of the advances of its characters.
+ */
+public final class FontMetricsTables {
+
+	static final String RESOURCE = "fontmetrics.bin";
+	static final int VERSION = 1;
+	static final char FIRST_CHAR = ' ';
+	static final char LAST_CHAR = (char) 0xFF;
+	static final int MIN_SIZE = 6;
+	static final int MAX_SIZE = 48;
+	// Advances that do not fit in an unsigned byte are followed by a float
+	static final int NOT_A_BYTE = 255;
+
+	private final Map<String, Table> tables;
+
+	static class Table {
+		private final float advances[] = new float[LAST_CHAR - FIRST_CHAR + 1];
+		private float height;
+	}
+
+	private FontMetricsTables(Map<String, Table> tables) {
+		this.tables = tables;
+	}
+
+	/**
+	 * Tables are used when PLANTUML_FONT_METRICS is set to "tables".
+	 */
+	public static boolean isEnabled() {
+		return "tables".equalsIgnoreCase(SecurityUtils.getenv("PLANTUML_FONT_METRICS"));
+	}
+
+	private static class Holder {
+		private static final FontMetricsTables singleton = load();
+	}
+
+	public static FontMetricsTables getInstance() {
+		return Holder.singleton;
+	}
+
+	static String getKey(String family, int style, int size) {
+		return StringUtils.goLowerCase(family) + "/" + style + "/" + size;
+	}
+
+	private static FontMetricsTables load() {
+		final Map<String, Table> tables = new HashMap<String, Table>();
+		final InputStream is = FontMetricsTables.class.getResourceAsStream(RESOURCE);
+		if (is == null) {
+			Log.info("No font metrics tables found");
+			return new FontMetricsTables(tables);
+		}
+		try {
+			final DataInputStream dis = new DataInputStream(new InflaterInputStream(is));
+			try {
+				if (dis.readInt() != VERSION) {
+					throw new IOException("Bad version");
+				}
+				final int nb = dis.readInt();
+				for (int i = 0; i < nb; i++) {
+					final String family = dis.readUTF();
+					final int style = dis.readByte();
+					final int size = dis.readByte();
+					final Table table = new Table();
+					table.height = dis.readFloat();
+					for (int j = 0; j < table.advances.length; j++) {
+						final int advance = dis.readUnsignedByte();
+						table.advances[j] = advance == NOT_A_BYTE ? dis.readFloat() : advance;
+					}
+					tables.put(getKey(family, style, size), table);
+				}
+			} finally {
+				dis.close();
+			}
+			Log.info("Font metrics tables loaded: " + tables.size());
+		} catch (IOException e) {
+			Log.error("Cannot read font metrics tables " + e);
+			tables.clear();
+		}
+		return new FontMetricsTables(tables);
+	}
+
+	/**
+	 * Dimension of the text, or <code>null</code> when the font or one of the
+	 * characters is not in the tables.
+	 */
+	public Dimension2DDouble getDimension(Font font, String text) {
+		if (font.hasLayoutAttributes() || font.isTransformed() || font.getSize2D() != font.getSize()) {
+			return null;
+		}
+		final Table table = tables.get(getKey(font.getName(), font.getStyle(), font.getSize()));
+		if (table == null) {
+			return null;
+		}
+		// Summed as floats, in order, like Java2D does
+		float width = 0;
+		for (int i = 0; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			if (c < FIRST_CHAR || c > LAST_CHAR) {
+				return null;
+			}
+			width += table.advances[c - FIRST_CHAR];
+		}
+		return new Dimension2DDouble(width, table.height);
+	}
+
+}
@@ -0,0 +1,106 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml.fontmetrics;
+
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+
+import net.sourceforge.plantuml.FileFormat;
+
+/**
+ * Builds the resource read by {@link FontMetricsTables} from the fonts
+ * installed on this machine.
+ * 
+ * Usage: <code>FontMetricsTablesGenerator output.bin [family...]</code>
+ */
+public class FontMetricsTablesGenerator {
+
+	private static final List<String> DEFAULT_FAMILIES = Arrays.asList("SansSerif", "Serif", "Monospaced",
+			"Dialog", "Courier", "Arial");
+	private static final int STYLES[] = { Font.PLAIN, Font.BOLD, Font.ITALIC, Font.BOLD | Font.ITALIC };
+
+	public static void main(String[] args) throws IOException {
+		final String output = args.length > 0 ? args[0] : FontMetricsTables.RESOURCE;
+		final List<String> families = args.length > 1 ? Arrays.asList(args).subList(1, args.length)
+				: DEFAULT_FAMILIES;
+		final Graphics2D gg = FileFormat.getMeasurementGraphics();
+		final DataOutputStream dos = new DataOutputStream(new DeflaterOutputStream(new FileOutputStream(output)));
+		try {
+			dos.writeInt(FontMetricsTables.VERSION);
+			final int nbSizes = FontMetricsTables.MAX_SIZE - FontMetricsTables.MIN_SIZE + 1;
+			dos.writeInt(families.size() * STYLES.length * nbSizes);
+			for (String family : families) {
+				for (int style : STYLES) {
+					for (int size = FontMetricsTables.MIN_SIZE; size <= FontMetricsTables.MAX_SIZE; size++) {
+						final Font font = new Font(family, style, size);
+						dos.writeUTF(family);
+						dos.writeByte(style);
+						dos.writeByte(size);
+						dos.writeFloat((float) getBounds(gg, font, "").getHeight());
+						for (char c = FontMetricsTables.FIRST_CHAR; c <= FontMetricsTables.LAST_CHAR; c++) {
+							final float advance = (float) getBounds(gg, font, String.valueOf(c)).getWidth();
+							if (advance >= 0 && advance < FontMetricsTables.NOT_A_BYTE && advance == (int) advance) {
+								dos.writeByte((int) advance);
+							} else {
+								dos.writeByte(FontMetricsTables.NOT_A_BYTE);
+								dos.writeFloat(advance);
+							}
+						}
+					}
+				}
+			}
+		} finally {
+			dos.close();
+		}
+		System.out.println("Font metrics tables written to " + output);
+	}
+
+	private static Rectangle2D getBounds(Graphics2D gg, Font font, String text) {
+		return gg.getFontMetrics(font).getStringBounds(text, gg);
+	}
+
+}
@@ -0,0 +1,110 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml.graphic;
+
+import java.awt.geom.Dimension2D;
+
+import net.sourceforge.plantuml.security.SecurityUtils;
+
+/**
+ * Dimension of an immutable text block, kept for the string bounder that
+ * computed it. Only used when PLANTUML_MEMO_DIMENSION is set to true.
+ * 
+ * The dimensions asked and actually computed are counted for each thread, so
+ * that the effect can be checked on a diagram with <code>-verbose</code>.
+ */
+public final class DimensionMemo {
+
+	private static final boolean ENABLED = "true".equalsIgnoreCase(SecurityUtils.getenv("PLANTUML_MEMO_DIMENSION"));
+
+	private static final ThreadLocal<long[]> counters = new ThreadLocal<long[]>() {
+		@Override
+		protected long[] initialValue() {
+			return new long[2];
+		}
+	};
+
+	static class Entry {
+		private final StringBounder stringBounder;
+		private final Dimension2D dimension;
+
+		Entry(StringBounder stringBounder, Dimension2D dimension) {
+			this.stringBounder = stringBounder;
+			this.dimension = dimension;
+		}
+	}
+
+	private volatile Entry last;
+
+	/**
+	 * Dimension already computed with this string bounder, or <code>null</code>.
+	 */
+	public Dimension2D get(StringBounder stringBounder) {
+		final long count[] = counters.get();
+		count[0]++;
+		if (ENABLED) {
+			final Entry entry = last;
+			if (entry != null && entry.stringBounder == stringBounder) {
+				return entry.dimension;
+			}
+		}
+		count[1]++;
+		return null;
+	}
+
+	public Dimension2D put(StringBounder stringBounder, Dimension2D dimension) {
+		if (ENABLED) {
+			last = new Entry(stringBounder, dimension);
+		}
+		return dimension;
+	}
+
+	public static void resetCounters() {
+		final long count[] = counters.get();
+		count[0] = 0;
+		count[1] = 0;
+	}
+
+	public static String getCounters() {
+		final long count[] = counters.get();
+		return "Text block dimensions: asked=" + count[0] + " computed=" + count[1];
+	}
+
+}
@@ -65,6 +65,7 @@ public class TextBlockBordered extends AbstractTextBlock implements TextBlock {
 	private final boolean withShadow;
 
 	private final TextBlock textBlock;
+	private final DimensionMemo memo = new DimensionMemo();
 
 	TextBlockBordered(TextBlock textBlock, UStroke stroke, HColor borderColor, HColor backgroundColor,
 			double cornersize, double marginX, double marginY) {
@@ -114,9 +115,13 @@ public class TextBlockBordered extends AbstractTextBlock implements TextBlock {
 	}
 
 	public Dimension2D calculateDimension(StringBounder stringBounder) {
+		final Dimension2D result = memo.get(stringBounder);
+		if (result != null) {
+			return result;
+		}
 		final double height = getTextHeight(stringBounder);
 		final double width = getTextWidth(stringBounder);
-		return new Dimension2DDouble(width + 1, height + 1);
+		return memo.put(stringBounder, new Dimension2DDouble(width + 1, height + 1));
 	}
 
 	private UGraphic applyStroke(UGraphic ug) {
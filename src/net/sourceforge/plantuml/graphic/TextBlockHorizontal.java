@@ -51,6 +51,7 @@ public class TextBlockHorizontal extends AbstractTextBlock implements TextBlock
 
 	private final List<TextBlock> blocks = new ArrayList<TextBlock>();
 	private final VerticalAlignment alignment;
+	private final DimensionMemo memo = new DimensionMemo();
 
 	TextBlockHorizontal(TextBlock b1, TextBlock b2, VerticalAlignment alignment) {
 		this.blocks.add(b1);
@@ -67,11 +68,15 @@ public class TextBlockHorizontal extends AbstractTextBlock implements TextBlock
 	}
 
 	public Dimension2D calculateDimension(StringBounder stringBounder) {
+		final Dimension2D result = memo.get(stringBounder);
+		if (result != null) {
+			return result;
+		}
 		Dimension2D dim = blocks.get(0).calculateDimension(stringBounder);
 		for (int i = 1; i < blocks.size(); i++) {
 			dim = Dimension2DDouble.mergeLR(dim, blocks.get(i).calculateDimension(stringBounder));
 		}
-		return dim;
+		return memo.put(stringBounder, dim);
 	}
 
 	public void drawU(UGraphic ug) {
@@ -56,6 +56,7 @@ class TextBlockMarged extends AbstractTextBlock implements TextBlock, WithPorts
 	private final double right;
 	private final double bottom;
 	private final double left;
+	private final DimensionMemo memo = new DimensionMemo();
 
 	TextBlockMarged(TextBlock textBlock, double top, double right, double bottom, double left) {
 		this.textBlock = textBlock;
@@ -74,8 +75,12 @@ class TextBlockMarged extends AbstractTextBlock implements TextBlock, WithPorts
 	}
 
 	public Dimension2D calculateDimension(StringBounder stringBounder) {
+		final Dimension2D result = memo.get(stringBounder);
+		if (result != null) {
+			return result;
+		}
 		final Dimension2D dim = textBlock.calculateDimension(stringBounder);
-		return Dimension2DDouble.delta(dim, left + right, top + bottom);
+		return memo.put(stringBounder, Dimension2DDouble.delta(dim, left + right, top + bottom));
 	}
 
 	public void drawU(UGraphic ug) {
@@ -188,15 +188,15 @@ public class TextBlockUtils {
 	}
 
 	public static FontRenderContext getFontRenderContext() {
-		return FileFormat.gg.getFontRenderContext();
+		return FileFormat.getMeasurementGraphics().getFontRenderContext();
 	}
 
 	public static LineMetrics getLineMetrics(UFont font, String text) {
-		return font.getLineMetrics(FileFormat.gg, text);
+		return font.getLineMetrics(FileFormat.getMeasurementGraphics(), text);
 	}
 
 	public static FontMetrics getFontMetrics(Font font) {
-		return FileFormat.gg.getFontMetrics(font);
+		return FileFormat.getMeasurementGraphics().getFontMetrics(font);
 	}
 
 	public static TextBlock fullInnerPosition(final TextBlock bloc, final String display) {
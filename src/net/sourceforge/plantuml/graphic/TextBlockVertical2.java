@@ -57,6 +57,7 @@ public class TextBlockVertical2 extends AbstractTextBlock implements TextBlock,
 
 	private final List<TextBlock> blocks = new ArrayList<TextBlock>();
 	private final HorizontalAlignment horizontalAlignment;
+	private final DimensionMemo memo = new DimensionMemo();
 
 	TextBlockVertical2(TextBlock b1, TextBlock b2, HorizontalAlignment horizontalAlignment) {
 		this.blocks.add(b1);
@@ -73,11 +74,15 @@ public class TextBlockVertical2 extends AbstractTextBlock implements TextBlock,
 	}
 
 	public Dimension2D calculateDimension(StringBounder stringBounder) {
+		final Dimension2D result = memo.get(stringBounder);
+		if (result != null) {
+			return result;
+		}
 		Dimension2D dim = blocks.get(0).calculateDimension(stringBounder);
 		for (int i = 1; i < blocks.size(); i++) {
 			dim = Dimension2DDouble.mergeTB(dim, blocks.get(i).calculateDimension(stringBounder));
 		}
-		return dim;
+		return memo.put(stringBounder, dim);
 	}
 
 	public void drawU(UGraphic ug) {
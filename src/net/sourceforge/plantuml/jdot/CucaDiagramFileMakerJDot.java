@@ -383,6 +383,7 @@ public class CucaDiagramFileMakerJDot implements CucaDiagramFileMaker {
 
 		Z.open();
 		try {
+			Z.z().UseArrays = isUseArrays();
 			final ST_Agraph_s g = agopen(new CString("g"), Z.z().Agdirected, null);
 
 			// printCluster(g, root);
@@ -452,6 +453,11 @@ public class CucaDiagramFileMakerJDot implements CucaDiagramFileMaker {
 		}
 	}
 
+	private boolean isUseArrays() {
+		final String value = diagram.getPragma().getValue("jdot_arrays");
+		return "true".equalsIgnoreCase(value) || "on".equalsIgnoreCase(value);
+	}
+
 	private void exportGroups(ST_Agraph_s graph, IGroup parent) {
 		for (IGroup g : diagram.getChildrenGroups(parent)) {
 			if (g.isRemoved()) {
@@ -0,0 +1,136 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml.jdot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.FileFormatOption;
+import net.sourceforge.plantuml.SourceStringReader;
+
+/**
+ * Lays out synthetic class diagrams with Smetana, with and without the
+ * <code>jdot_arrays</code> pragma, and prints the duration of each layout.
+ * 
+ * Usage: <code>SmetanaArraysBenchmark [nbNodes...]</code>
+ */
+public class SmetanaArraysBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		final int sizes[];
+		if (args.length == 0) {
+			sizes = new int[] { 1000, 5000, 10000 };
+		} else {
+			sizes = new int[args.length];
+			for (int i = 0; i < args.length; i++) {
+				sizes[i] = Integer.parseInt(args[i]);
+			}
+		}
+		// Warm up
+		run(200, false);
+		run(200, true);
+		for (int nbNodes : sizes) {
+			final long objects = run(nbNodes, false);
+			final long arrays = run(nbNodes, true);
+			System.out.println(String.format("nodes=%6d objects=%8d ms arrays=%8d ms ratio=%5.2f", nbNodes, objects,
+					arrays, 1.0 * objects / arrays));
+		}
+	}
+
+	// Smetana recurses along the graph: large graphs need a large stack
+	private static long run(final int nbNodes, final boolean arrays) throws Exception {
+		final long result[] = new long[1];
+		final Exception error[] = new Exception[1];
+		final Thread thread = new Thread(null, new Runnable() {
+			public void run() {
+				try {
+					result[0] = layout(nbNodes, arrays);
+				} catch (Exception e) {
+					error[0] = e;
+				}
+			}
+		}, "SmetanaArraysBenchmark", 1L << 30);
+		thread.start();
+		thread.join();
+		if (error[0] != null) {
+			throw error[0];
+		}
+		return result[0];
+	}
+
+	private static long layout(int nbNodes, boolean arrays) throws IOException {
+		final String source = createSource(nbNodes, arrays);
+		final long start = System.currentTimeMillis();
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		new SourceStringReader(source).outputImage(baos, new FileFormatOption(FileFormat.SVG));
+		final long duration = System.currentTimeMillis() - start;
+		if (baos.toString("UTF-8").contains("An error has occured")) {
+			throw new IllegalStateException("Layout failed for " + nbNodes + " nodes");
+		}
+		return duration;
+	}
+
+	// A random tree with one extra edge every four nodes, always generated with
+	// the same seed so that both modes lay out the same graph
+	private static String createSource(int nbNodes, boolean arrays) {
+		final Random random = new Random(42);
+		final StringBuilder sb = new StringBuilder();
+		sb.append("@startuml\n");
+		sb.append("!pragma graphviz_dot jdot\n");
+		if (arrays) {
+			sb.append("!pragma jdot_arrays true\n");
+		}
+		sb.append("hide members\n");
+		for (int i = 0; i < nbNodes; i++) {
+			sb.append("class C").append(i).append('\n');
+		}
+		for (int i = 1; i < nbNodes; i++) {
+			sb.append("C").append(random.nextInt(i)).append(" --> C").append(i).append('\n');
+			if (i % 4 == 0) {
+				sb.append("C").append(random.nextInt(i)).append(" --> C").append(i).append('\n');
+			}
+		}
+		sb.append("@enduml\n");
+		return sb.toString();
+	}
+
+}
@@ -116,6 +116,17 @@ public class FileWithSuffix {
 		return null;
 	}
 
+	/**
+	 * The regular file to be read, or <code>null</code> if the data comes from
+	 * elsewhere (zip entry...).
+	 */
+	public SFile getUnderlyingFile() {
+		if (file instanceof AFileRegular == false || entry != null) {
+			return null;
+		}
+		return file.getUnderlyingFile();
+	}
+
 	public boolean fileOk() {
 		return file != null && file.isOk();
 	}
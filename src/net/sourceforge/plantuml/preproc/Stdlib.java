@@ -41,12 +41,13 @@ package net.sourceforge.plantuml.preproc;
 
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
-import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -58,8 +59,12 @@ import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import net.sourceforge.plantuml.Log;
+import net.sourceforge.plantuml.LruCache;
 import net.sourceforge.plantuml.brotli.BrotliInputStream;
 import net.sourceforge.plantuml.security.SFile;
 
@@ -69,9 +74,18 @@ public class Stdlib {
 	private static final String SEPARATOR = "\uF8FF";
 	private static final Pattern sizePattern = Pattern.compile("\\[(\\d+)x(\\d+)/16\\]");
 
-	private final Map<String, SoftReference<String>> cache = new ConcurrentHashMap<String, SoftReference<String>>();
+	// Resources recently loaded from any folder, bounded by their total length
+	private static final int CACHE_MAX_CHARS = 8 * 1024 * 1024;
+	private static final LruCache<String, String> cache = new LruCache<String, String>(CACHE_MAX_CHARS) {
+		@Override
+		protected long sizeOf(String value) {
+			return value.length();
+		}
+	};
+
 	private final String name;
 	private final Map<String, String> info = new HashMap<String, String>();
+	private Map<String, byte[]> index;
 
 	public static InputStream getResourceAsStream(String fullname) {
 		fullname = fullname.toLowerCase().replace(".puml", "");
@@ -111,73 +125,124 @@ public class Stdlib {
 	}
 
 	private String loadRessource(String file) throws IOException {
-		final SoftReference<String> cached = cache.get(file.toLowerCase());
-		if (cached != null) {
-			final String cachedResult = cached.get();
-			if (cachedResult != null) {
-				// Log.info("Using cache for " + file);
-				return cachedResult;
-			}
+		final String key = name + "/" + file.toLowerCase();
+		final String cachedResult = cache.get(key);
+		if (cachedResult != null) {
+			return cachedResult;
 		}
 		Log.info("No cache for " + file);
+		final Map<String, byte[]> index = getIndex();
+		if (index == null) {
+			return null;
+		}
+		final byte[] block = index.get(file.toLowerCase());
+		if (block == null) {
+			Log.info("Not found " + file);
+			return null;
+		}
+		final String result = readBlock(block);
+		cache.put(key, result);
+		return result;
+	}
+
+	/**
+	 * The data and sprite streams can only be read sequentially. The first time a
+	 * resource of this folder is needed, both streams are read once and every
+	 * resource is stored as its own small compressed block, so that any resource
+	 * can then be loaded without decoding the ones before it.
+	 */
+	private synchronized Map<String, byte[]> getIndex() throws IOException {
+		if (index == null) {
+			index = buildIndex();
+		}
+		return index;
+	}
+
+	private Map<String, byte[]> buildIndex() throws IOException {
 		final DataInputStream dataStream = getDataStream();
 		if (dataStream == null) {
 			return null;
 		}
 		dataStream.readUTF();
-		final InputStream spriteStream = getSpriteStream();
-		if (spriteStream == null) {
+		final InputStream rawSpriteStream = getSpriteStream();
+		if (rawSpriteStream == null) {
 			dataStream.close();
 			return null;
 		}
+		final DataInputStream spriteStream = new DataInputStream(rawSpriteStream);
+		final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
 		try {
-			StringBuilder found = null;
+			final Map<String, byte[]> result = new HashMap<String, byte[]>();
 			while (true) {
 				final String filename = dataStream.readUTF();
 				if (filename.equals(SEPARATOR)) {
-					Log.info("Not found " + filename);
-					return null;
-				}
-				if (filename.equalsIgnoreCase(file)) {
-					found = new StringBuilder();
+					Log.info("Indexed " + result.size() + " files in " + name);
+					return result;
 				}
+				deflater.reset();
+				final ByteArrayOutputStream block = new ByteArrayOutputStream();
+				final DataOutputStream blockStream = new DataOutputStream(new DeflaterOutputStream(block, deflater));
 				while (true) {
 					final String s = dataStream.readUTF();
+					blockStream.writeUTF(s);
 					if (s.equals(SEPARATOR)) {
-						if (found != null) {
-							final String result = found.toString();
-							cache.put(file.toLowerCase(), new SoftReference<String>(result));
-							return result;
-						}
 						break;
 					}
-					if (found != null) {
-						found.append(s);
-						found.append("\n");
-					}
 					if (isSpriteLine(s)) {
-						final Matcher m = sizePattern.matcher(s);
-						final boolean ok = m.find();
-						if (ok == false) {
-							throw new IOException(s);
-						}
-						final int width = Integer.parseInt(m.group(1));
-						final int height = Integer.parseInt(m.group(2));
-						if (found == null) {
-							skipSprite(width, height, spriteStream);
-						} else {
-							final String sprite = readSprite(width, height, spriteStream);
-							found.append(sprite);
-							found.append("}\n");
-						}
+						final byte[] sprite = new byte[getSpriteSize(s)];
+						spriteStream.readFully(sprite);
+						blockStream.write(sprite);
 					}
 				}
+				blockStream.close();
+				final String key = filename.toLowerCase();
+				if (result.containsKey(key) == false) {
+					result.put(key, block.toByteArray());
+				}
 			}
 		} finally {
+			deflater.end();
 			dataStream.close();
 			spriteStream.close();
 		}
+	}
+
+	private String readBlock(byte[] block) throws IOException {
+		final DataInputStream blockStream = new DataInputStream(
+				new InflaterInputStream(new ByteArrayInputStream(block)));
+		try {
+			final StringBuilder found = new StringBuilder();
+			while (true) {
+				final String s = blockStream.readUTF();
+				if (s.equals(SEPARATOR)) {
+					return found.toString();
+				}
+				found.append(s);
+				found.append("\n");
+				if (isSpriteLine(s)) {
+					final Matcher m = sizePattern.matcher(s);
+					m.find();
+					final int width = Integer.parseInt(m.group(1));
+					final int height = Integer.parseInt(m.group(2));
+					final String sprite = readSprite(width, height, blockStream);
+					found.append(sprite);
+					found.append("}\n");
+				}
+			}
+		} finally {
+			blockStream.close();
+		}
+	}
 
+	private int getSpriteSize(String spriteLine) throws IOException {
+		final Matcher m = sizePattern.matcher(spriteLine);
+		final boolean ok = m.find();
+		if (ok == false) {
+			throw new IOException(spriteLine);
+		}
+		final int width = Integer.parseInt(m.group(1));
+		final int height = Integer.parseInt(m.group(2));
+		return ((height + 1) / 2) * width;
 	}
 
 	private Stdlib(String name, String info) throws IOException {
@@ -185,11 +250,6 @@ public class Stdlib {
 		fillMap(info);
 	}
 
-	private void skipSprite(int width, int height, InputStream inputStream) throws IOException {
-		final int nbLines = (height + 1) / 2;
-		inputStream.skip(nbLines * width);
-	}
-
 	private String readSprite(int width, int height, InputStream inputStream) throws IOException {
 		final int nbLines = (height + 1) / 2;
 		final StringBuilder result = new StringBuilder();
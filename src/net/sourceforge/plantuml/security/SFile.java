@@ -233,6 +233,10 @@ public class SFile implements Comparable<SFile> {
 		return new SFile(File.createTempFile(prefix, suffix));
 	}
 
+	public static SFile createTempFile(String prefix, String suffix, SFile directory) throws IOException {
+		return new SFile(File.createTempFile(prefix, suffix, directory.internal));
+	}
+
 	public URI toURI() {
 		return internal.toURI();
 	}
@@ -49,6 +49,7 @@ import net.sourceforge.plantuml.UrlBuilder.ModeUrl;
 import net.sourceforge.plantuml.classdiagram.command.CommandLinkClass;
 import net.sourceforge.plantuml.command.CommandExecutionResult;
 import net.sourceforge.plantuml.command.SingleLineCommand2;
+import net.sourceforge.plantuml.command.regex.FastPathSequenceArrow;
 import net.sourceforge.plantuml.command.regex.IRegex;
 import net.sourceforge.plantuml.command.regex.RegexConcat;
 import net.sourceforge.plantuml.command.regex.RegexLeaf;
@@ -73,7 +74,7 @@ public class CommandArrow extends SingleLineCommand2<SequenceDiagram> {
 	static final String ANCHOR = "(\\{([\\p{L}0-9_]+)\\}[%s]+)?";
 
 	public CommandArrow() {
-		super(getRegexConcat());
+		super(new FastPathSequenceArrow(getRegexConcat()));
 	}
 
 	public static String getColorOrStylePattern() {
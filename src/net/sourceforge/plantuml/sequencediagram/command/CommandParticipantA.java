@@ -40,6 +40,7 @@
 package net.sourceforge.plantuml.sequencediagram.command;
 
 import net.sourceforge.plantuml.UrlBuilder;
+import net.sourceforge.plantuml.command.regex.FastPathParticipant;
 import net.sourceforge.plantuml.command.regex.IRegex;
 import net.sourceforge.plantuml.command.regex.RegexConcat;
 import net.sourceforge.plantuml.command.regex.RegexLeaf;
@@ -49,7 +50,7 @@ import net.sourceforge.plantuml.graphic.color.ColorParser;
 public class CommandParticipantA extends CommandParticipant {
 
 	public CommandParticipantA() {
-		super(getRegexConcat());
+		super(new FastPathParticipant(getRegexConcat()));
 	}
 
 	static IRegex getRegexConcat() {
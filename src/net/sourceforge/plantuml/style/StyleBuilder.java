@@ -40,10 +40,10 @@
 package net.sourceforge.plantuml.style;
 
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 
 import net.sourceforge.plantuml.Log;
@@ -51,11 +51,18 @@ import net.sourceforge.plantuml.SkinParam;
 
 public class StyleBuilder implements AutomaticCounter {
 
-	private final Map<StyleSignature, Style> styles = new LinkedHashMap<StyleSignature, Style>();
+	private Map<StyleSignature, Style> styles = new LinkedHashMap<StyleSignature, Style>();
+	// When true, styles belongs to a skin shared between diagrams and is copied
+	// before any change
+	private boolean sharedStyles;
 	private final Set<StyleSignature> printedForLog;
 	private final SkinParam skinParam;
 	private int counter;
 
+	// Both are rebuilt from styles after any put()
+	private final Map<StyleSignature, Style> mergedCache = new HashMap<StyleSignature, Style>();
+	private StyleIndex index;
+
 	private StyleBuilder(SkinParam skinParam, Set<StyleSignature> printedForLog) {
 		this.skinParam = skinParam;
 		this.printedForLog = new LinkedHashSet<StyleSignature>();
@@ -65,6 +72,25 @@ public class StyleBuilder implements AutomaticCounter {
 		this(skinParam, new LinkedHashSet<StyleSignature>());
 	}
 
+	/**
+	 * Returns a builder for another diagram, starting with the same styles. They
+	 * are not copied until the new builder is modified.
+	 */
+	StyleBuilder shareWith(SkinParam other) {
+		final StyleBuilder result = new StyleBuilder(other);
+		result.styles = this.styles;
+		result.sharedStyles = true;
+		result.index = this.index;
+		result.counter = this.counter;
+		return result;
+	}
+
+	void buildIndex() {
+		if (index == null) {
+			index = new StyleIndex(styles);
+		}
+	}
+
 	public final SkinParam getSkinParam() {
 		return skinParam;
 	}
@@ -100,7 +126,13 @@ public class StyleBuilder implements AutomaticCounter {
 	}
 
 	public void put(StyleSignature styleName, Style newStyle) {
+		if (sharedStyles) {
+			this.styles = new LinkedHashMap<StyleSignature, Style>(styles);
+			this.sharedStyles = false;
+		}
 		this.styles.put(styleName, newStyle);
+		this.mergedCache.clear();
+		this.index = null;
 	}
 
 	public int getNextInt() {
@@ -108,22 +140,15 @@ public class StyleBuilder implements AutomaticCounter {
 	}
 
 	public Style getMergedStyle(StyleSignature signature) {
-		boolean added = this.printedForLog.add(signature);
-		if (added) {
-			Log.info("Using style " + signature);
-		}
-		Style result = null;
-		for (Entry<StyleSignature, Style> ent : styles.entrySet()) {
-			final StyleSignature key = ent.getKey();
-			if (key.matchAll(signature) == false) {
-				continue;
-			}
-			if (result == null) {
-				result = ent.getValue();
-			} else {
-				result = result.mergeWith(ent.getValue());
+		Style result = mergedCache.get(signature);
+		if (result == null && mergedCache.containsKey(signature) == false) {
+			boolean added = this.printedForLog.add(signature);
+			if (added) {
+				Log.info("Using style " + signature);
 			}
-
+			buildIndex();
+			result = index.getMergedStyle(signature);
+			mergedCache.put(signature, result);
 		}
 		return result;
 	}
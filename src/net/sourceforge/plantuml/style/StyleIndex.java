@@ -0,0 +1,114 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml.style;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Styles of a StyleBuilder, indexed by name.
+ * 
+ * A declared style can only match a signature containing all its names, so
+ * each style is registered under one of them. Styles with no name but "*" are
+ * candidates for every signature.
+ */
+class StyleIndex {
+
+	private final List<StyleSignature> keys = new ArrayList<StyleSignature>();
+	private final List<Style> values = new ArrayList<Style>();
+	private final Map<String, BitSet> byName = new HashMap<String, BitSet>();
+	private final BitSet always = new BitSet();
+
+	StyleIndex(Map<StyleSignature, Style> styles) {
+		for (Map.Entry<StyleSignature, Style> ent : styles.entrySet()) {
+			final int position = keys.size();
+			keys.add(ent.getKey());
+			values.add(ent.getValue());
+			final String name = getIndexName(ent.getKey());
+			if (name == null) {
+				always.set(position);
+			} else {
+				BitSet positions = byName.get(name);
+				if (positions == null) {
+					positions = new BitSet();
+					byName.put(name, positions);
+				}
+				positions.set(position);
+			}
+		}
+	}
+
+	private static String getIndexName(StyleSignature key) {
+		for (String name : key.getNames()) {
+			if (name.equals("*") == false) {
+				return name;
+			}
+		}
+		return null;
+	}
+
+	// Same result as merging, in declaration order, every style whose key
+	// matches the signature
+	Style getMergedStyle(StyleSignature signature) {
+		final BitSet candidates = (BitSet) always.clone();
+		for (String name : signature.getNames()) {
+			final BitSet positions = byName.get(name);
+			if (positions != null) {
+				candidates.or(positions);
+			}
+		}
+		Style result = null;
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+			if (keys.get(i).matchAll(signature) == false) {
+				continue;
+			}
+			if (result == null) {
+				result = values.get(i);
+			} else {
+				result = result.mergeWith(values.get(i));
+			}
+		}
+		return result;
+	}
+
+}
@@ -46,6 +46,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -68,23 +69,46 @@ public class StyleLoader {
 		this.skinParam = skinParam;
 	}
 
-	private StyleBuilder styleBuilder;
+	// Skins already parsed, shared by all diagrams. Each diagram gets its own
+	// StyleBuilder on top of them, see StyleBuilder.shareWith()
+	private static final Map<String, StyleBuilder> cache = new LinkedHashMap<String, StyleBuilder>(16, 0.75f,
+			true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, StyleBuilder> eldest) {
+			return size() > 32;
+		}
+	};
 
-	public StyleBuilder loadSkin(String filename) throws IOException {
-		this.styleBuilder = new StyleBuilder(skinParam);
+	private static synchronized StyleBuilder getCached(String key) {
+		return cache.get(key);
+	}
 
-		InputStream internalIs = null;
+	private static synchronized void putCached(String key, StyleBuilder compiled) {
+		cache.put(key, compiled);
+	}
+
+	public StyleBuilder loadSkin(String filename) throws IOException {
 		SFile localFile = new SFile(filename);
 		Log.info("Trying to load style " + filename);
 		if (localFile.exists() == false) {
 			localFile = FileSystem.getInstance().getFile(filename);
 		}
+		final String key;
+		final InputStream internalIs;
 		if (localFile.exists()) {
 			Log.info("File found : " + localFile.getPrintablePath());
 			internalIs = localFile.openFile();
+			key = null;
 		} else {
 			Log.info("File not found : " + localFile.getPrintablePath());
 			final String res = "/skin/" + filename;
+			// Skins inside the .jar cannot change
+			key = res;
+			final StyleBuilder cached = getCached(key);
+			if (cached != null) {
+				Log.info("... but " + filename + " found inside the .jar");
+				return cached.shareWith(skinParam);
+			}
 			internalIs = StyleLoader.class.getResourceAsStream(res);
 			if (internalIs != null) {
 				Log.info("... but " + filename + " found inside the .jar");
@@ -94,14 +118,29 @@ public class StyleLoader {
 			return null;
 		}
 		final BlocLines lines2 = BlocLines.load(internalIs, new LineLocationImpl(filename, null));
-		loadSkinInternal(lines2);
-		return styleBuilder;
+		return loadSkinInternal(key == null ? contentKey(localFile, lines2) : key, lines2);
+	}
+
+	private static String contentKey(SFile localFile, BlocLines lines) {
+		final StringBuilder sb = new StringBuilder(localFile.getPrintablePath());
+		for (StringLocated s : lines) {
+			sb.append('\n');
+			sb.append(s.getString());
+		}
+		return sb.toString();
 	}
 
-	private void loadSkinInternal(final BlocLines lines) {
-		for (Style newStyle : getDeclaredStyles(lines, styleBuilder)) {
-			this.styleBuilder.put(newStyle.getSignature(), newStyle);
+	private StyleBuilder loadSkinInternal(String key, final BlocLines lines) {
+		StyleBuilder compiled = getCached(key);
+		if (compiled == null) {
+			compiled = new StyleBuilder(null);
+			for (Style newStyle : getDeclaredStyles(lines, compiled)) {
+				compiled.put(newStyle.getSignature(), newStyle);
+			}
+			compiled.buildIndex();
+			putCached(key, compiled);
 		}
+		return compiled.shareWith(skinParam);
 	}
 
 	private static final String NAME_USER = "[\\w()]+?";
@@ -43,11 +43,26 @@ import java.awt.geom.Dimension2D;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import net.sourceforge.plantuml.AnnotatedWorker;
 import net.sourceforge.plantuml.BaseFile;
 import net.sourceforge.plantuml.FileFormatOption;
+import net.sourceforge.plantuml.Log;
 import net.sourceforge.plantuml.NamedOutputStream;
 import net.sourceforge.plantuml.Scale;
 import net.sourceforge.plantuml.SkinParam;
@@ -55,7 +70,10 @@ import net.sourceforge.plantuml.UmlDiagramType;
 import net.sourceforge.plantuml.api.ImageDataAbstract;
 import net.sourceforge.plantuml.core.ImageData;
 import net.sourceforge.plantuml.cucadiagram.CucaDiagram;
+import net.sourceforge.plantuml.cucadiagram.IEntity;
+import net.sourceforge.plantuml.cucadiagram.ILeaf;
 import net.sourceforge.plantuml.cucadiagram.Link;
+import net.sourceforge.plantuml.cucadiagram.Rankdir;
 import net.sourceforge.plantuml.cucadiagram.dot.CucaDiagramSimplifierActivity;
 import net.sourceforge.plantuml.cucadiagram.dot.CucaDiagramSimplifierState;
 import net.sourceforge.plantuml.cucadiagram.dot.DotData;
@@ -86,8 +104,13 @@ public final class CucaDiagramFileMakerSvek implements CucaDiagramFileMaker {
 	}
 
 	private GeneralImageBuilder createDotDataImageBuilder(DotMode dotMode, StringBounder stringBounder) {
-		final DotData dotData = new DotData(diagram.getEntityFactory().getRootGroup(), getOrderedLinks(),
-				diagram.getLeafsvalues(), diagram.getUmlDiagramType(), diagram.getSkinParam(), diagram, diagram,
+		return createDotDataImageBuilder(dotMode, stringBounder, diagram.getLeafsvalues(), getOrderedLinks());
+	}
+
+	private GeneralImageBuilder createDotDataImageBuilder(DotMode dotMode, StringBounder stringBounder,
+			Collection<ILeaf> leafs, List<Link> links) {
+		final DotData dotData = new DotData(diagram.getEntityFactory().getRootGroup(), links, leafs,
+				diagram.getUmlDiagramType(), diagram.getSkinParam(), diagram, diagram,
 				diagram.getColorMapper(), diagram.getEntityFactory(), diagram.isHideEmptyDescriptionForState(), dotMode,
 				diagram.getNamespaceSeparator(), diagram.getPragma());
 		final boolean intricated = diagram.mergeIntricated();
@@ -104,20 +127,29 @@ public final class CucaDiagramFileMakerSvek implements CucaDiagramFileMaker {
 			new CucaDiagramSimplifierState(diagram, dotStrings, fileFormatOption.getDefaultStringBounder());
 		}
 
-		// System.err.println("FOO11 type=" + os.getClass());
-		GeneralImageBuilder svek2 = createDotDataImageBuilder(DotMode.NORMAL,
-				fileFormatOption.getDefaultStringBounder());
 		BaseFile basefile = null;
 		if (fileFormatOption.isDebugSvek() && os instanceof NamedOutputStream) {
 			basefile = ((NamedOutputStream) os).getBasefile();
 		}
 		// System.err.println("FOO11 basefile=" + basefile);
 
-		TextBlockBackcolored result = svek2.buildImage(basefile, diagram.getDotStringSkek());
-		if (result instanceof GraphvizCrash) {
-			svek2 = createDotDataImageBuilder(DotMode.NO_LEFT_RIGHT_AND_XLABEL,
+		final List<GeneralImageBuilder> builders = new ArrayList<GeneralImageBuilder>();
+		TextBlockBackcolored result = null;
+		if (isSvekComponents()) {
+			result = buildComponents(builders, basefile, fileFormatOption.getDefaultStringBounder());
+		}
+		if (result == null) {
+			builders.clear();
+			// System.err.println("FOO11 type=" + os.getClass());
+			GeneralImageBuilder svek2 = createDotDataImageBuilder(DotMode.NORMAL,
 					fileFormatOption.getDefaultStringBounder());
 			result = svek2.buildImage(basefile, diagram.getDotStringSkek());
+			if (result instanceof GraphvizCrash) {
+				svek2 = createDotDataImageBuilder(DotMode.NO_LEFT_RIGHT_AND_XLABEL,
+						fileFormatOption.getDefaultStringBounder());
+				result = svek2.buildImage(basefile, diagram.getDotStringSkek());
+			}
+			builders.add(svek2);
 		}
 		final boolean isGraphvizCrash = result instanceof GraphvizCrash;
 		result = new AnnotatedWorker(diagram, diagram.getSkinParam(), fileFormatOption.getDefaultStringBounder())
@@ -126,7 +158,11 @@ public final class CucaDiagramFileMakerSvek implements CucaDiagramFileMaker {
 		final String widthwarning = diagram.getSkinParam().getValue("widthwarning");
 		String warningOrError = null;
 		if (widthwarning != null && widthwarning.matches("\\d+")) {
-			warningOrError = svek2.getWarningOrError(Integer.parseInt(widthwarning));
+			for (GeneralImageBuilder builder : builders) {
+				if (warningOrError == null) {
+					warningOrError = builder.getWarningOrError(Integer.parseInt(widthwarning));
+				}
+			}
 		}
 		final Dimension2D dim = result.calculateDimension(fileFormatOption.getDefaultStringBounder());
 		final double scale = getScale(fileFormatOption, dim);
@@ -150,6 +186,197 @@ public final class CucaDiagramFileMakerSvek implements CucaDiagramFileMaker {
 		return imageData;
 	}
 
+	private boolean isSvekComponents() {
+		final String value = diagram.getPragma().getValue("svek_components");
+		return "parallel".equalsIgnoreCase(value) || "true".equalsIgnoreCase(value) || "on".equalsIgnoreCase(value);
+	}
+
+	/**
+	 * Lays out the connected components with one Graphviz process per group of
+	 * components, all processes running concurrently. Returns null when the
+	 * diagram cannot be split, or when one of the layouts fails.
+	 */
+	private TextBlockBackcolored buildComponents(List<GeneralImageBuilder> builders, BaseFile basefile,
+			StringBounder stringBounder) throws InterruptedException {
+		final List<Collection<ILeaf>> all = getComponents();
+		if (all == null) {
+			return null;
+		}
+		final List<Collection<ILeaf>> components = groupComponents(all, Runtime.getRuntime().availableProcessors());
+		if (components.size() < 2) {
+			return null;
+		}
+		final String dotStrings[] = diagram.getDotStringSkek();
+		final List<Link> links = getOrderedLinks();
+		final List<IEntityImage> images = new ArrayList<IEntityImage>();
+		final List<GeneralImageBuilder> toRun = new ArrayList<GeneralImageBuilder>();
+		// Building entity images reads the shared skin parameters: not concurrent
+		for (Collection<ILeaf> leafs : components) {
+			final List<Link> componentLinks = new ArrayList<Link>();
+			for (Link link : links) {
+				if (leafs.contains(link.getEntity1())) {
+					componentLinks.add(link);
+				}
+			}
+			final GeneralImageBuilder builder = createDotDataImageBuilder(DotMode.NORMAL, stringBounder, leafs,
+					componentLinks);
+			builders.add(builder);
+			final IEntityImage image = builder.prepareImage(dotStrings);
+			images.add(image);
+			if (image == null) {
+				toRun.add(builder);
+			}
+		}
+		runGraphviz(toRun, basefile, dotStrings);
+		for (int i = 0; i < images.size(); i++) {
+			if (images.get(i) == null) {
+				final IEntityImage image = builders.get(i).finishImage();
+				if (image instanceof GraphvizCrash) {
+					return null;
+				}
+				images.set(i, image);
+			}
+		}
+		Log.info("Svek: " + all.size() + " components laid out in " + images.size() + " groups");
+		return new SvekComponents(images, diagram.getSkinParam().getRankdir() == Rankdir.LEFT_TO_RIGHT);
+	}
+
+	/**
+	 * Groups components into at most nbGroups, of balanced number of entities, so
+	 * that a diagram made of many small components still starts no more Graphviz
+	 * processes than there are processors. Components keep their order, inside a
+	 * group and between groups.
+	 */
+	private static List<Collection<ILeaf>> groupComponents(final List<Collection<ILeaf>> components, int nbGroups) {
+		final List<Integer> bySize = new ArrayList<Integer>();
+		for (int i = 0; i < components.size(); i++) {
+			bySize.add(i);
+		}
+		Collections.sort(bySize, new Comparator<Integer>() {
+			public int compare(Integer i1, Integer i2) {
+				return components.get(i2).size() - components.get(i1).size();
+			}
+		});
+		// Largest components first, each one going to the smallest group
+		final int group[] = new int[components.size()];
+		final int sizes[] = new int[Math.min(nbGroups, components.size())];
+		for (int i : bySize) {
+			int smallest = 0;
+			for (int j = 1; j < sizes.length; j++) {
+				if (sizes[j] < sizes[smallest]) {
+					smallest = j;
+				}
+			}
+			group[i] = smallest;
+			sizes[smallest] += components.get(i).size();
+		}
+		final Map<Integer, Collection<ILeaf>> result = new LinkedHashMap<Integer, Collection<ILeaf>>();
+		for (int i = 0; i < components.size(); i++) {
+			Collection<ILeaf> leafs = result.get(group[i]);
+			if (leafs == null) {
+				leafs = new LinkedHashSet<ILeaf>();
+				result.put(group[i], leafs);
+			}
+			leafs.addAll(components.get(i));
+		}
+		return new ArrayList<Collection<ILeaf>>(result.values());
+	}
+
+	// Shared by all diagrams, so that the number of concurrent layouts stays bounded
+	private static ExecutorService componentExecutor;
+
+	private static synchronized ExecutorService getComponentExecutor() {
+		if (componentExecutor == null) {
+			final int size = Runtime.getRuntime().availableProcessors();
+			final ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, 60L, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+						public Thread newThread(Runnable runnable) {
+							final Thread thread = new Thread(runnable, "Svek component");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			executor.allowCoreThreadTimeOut(true);
+			componentExecutor = executor;
+		}
+		return componentExecutor;
+	}
+
+	private void runGraphviz(List<GeneralImageBuilder> builders, final BaseFile basefile, final String dotStrings[])
+			throws InterruptedException {
+		if (builders.size() == 0) {
+			return;
+		}
+		final List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+		for (final GeneralImageBuilder builder : builders) {
+			if (builders.size() == 1 || builder.isRunnableConcurrently() == false) {
+				builder.runGraphviz(basefile, dotStrings);
+				continue;
+			}
+			tasks.add(Executors.callable(new Runnable() {
+				public void run() {
+					builder.runGraphviz(basefile, dotStrings);
+				}
+			}));
+		}
+		getComponentExecutor().invokeAll(tasks);
+	}
+
+	/**
+	 * Connected components of a diagram without any group, in the order of their
+	 * first entity. Returns null when the diagram is not worth splitting.
+	 */
+	private List<Collection<ILeaf>> getComponents() {
+		final UmlDiagramType type = diagram.getUmlDiagramType();
+		if (type != UmlDiagramType.CLASS && type != UmlDiagramType.OBJECT && type != UmlDiagramType.DESCRIPTION) {
+			return null;
+		}
+		if (diagram.getEntityFactory().groups().size() > 0 || diagram.getSkinParam().sameClassWidth()) {
+			return null;
+		}
+		final Map<IEntity, IEntity> parents = new HashMap<IEntity, IEntity>();
+		for (ILeaf leaf : diagram.getLeafsvalues()) {
+			if (leaf.isRemoved() == false) {
+				parents.put(leaf, leaf);
+			}
+		}
+		for (Link link : diagram.getLinks()) {
+			if (link.isRemoved()) {
+				continue;
+			}
+			if (parents.containsKey(link.getEntity1()) == false || parents.containsKey(link.getEntity2()) == false) {
+				return null;
+			}
+			parents.put(getComponent(parents, link.getEntity1()), getComponent(parents, link.getEntity2()));
+		}
+		final Map<IEntity, Collection<ILeaf>> result = new LinkedHashMap<IEntity, Collection<ILeaf>>();
+		for (ILeaf leaf : diagram.getLeafsvalues()) {
+			if (leaf.isRemoved()) {
+				continue;
+			}
+			final IEntity component = getComponent(parents, leaf);
+			Collection<ILeaf> leafs = result.get(component);
+			if (leafs == null) {
+				leafs = new LinkedHashSet<ILeaf>();
+				result.put(component, leafs);
+			}
+			leafs.add(leaf);
+		}
+		if (result.size() < 2) {
+			return null;
+		}
+		return new ArrayList<Collection<ILeaf>>(result.values());
+	}
+
+	private static IEntity getComponent(Map<IEntity, IEntity> parents, IEntity entity) {
+		IEntity current = entity;
+		while (parents.get(current) != current) {
+			current = parents.get(current);
+		}
+		parents.put(entity, current);
+		return current;
+	}
+
 	private List<Link> getOrderedLinks() {
 		final List<Link> result = new ArrayList<Link>();
 		for (Link l : diagram.getLinks()) {
@@ -297,15 +297,47 @@ public class DotStringFactory implements Moveable {
 	}
 
 	public String getSvg(BaseFile basefile, String[] dotOptions) throws IOException {
-		String dotString = createDotString(dotOptions);
+		return getGraphvizOutput(basefile, dotOptions, "svg");
+	}
+
+	/**
+	 * Runs Graphviz with the given output format, "svg" or "json". GraphvizJs
+	 * always gives SVG.
+	 */
+	public String getGraphvizOutput(BaseFile basefile, String[] dotOptions, String format) throws IOException {
+		final String dotString = createDotString(dotOptions);
+		return getGraphvizOutput(basefile, dotOptions, format, dotString, createGraphviz(dotString, format));
+	}
+
+	Graphviz createGraphviz(String dotString, String format) {
+		return GraphvizUtils.createForSvek(skinParam, dotString, format);
+	}
 
+	/**
+	 * Runs a Graphviz created by createGraphviz(). Apart from the GraphvizJs
+	 * fallback, this does not read the skin parameters, so several factories
+	 * sharing them can run it concurrently.
+	 */
+	String getGraphvizOutput(BaseFile basefile, String[] dotOptions, String format, String dotString,
+			Graphviz graphviz) throws IOException {
 		if (basefile != null) {
 			final SFile f = basefile.getTraceFile("svek.dot");
 			SvekUtils.traceString(f, dotString);
 		}
 
-		Graphviz graphviz = GraphvizUtils.create(skinParam, dotString, "svg");
+		final String cacheKey = LayoutCache.getKey(graphviz, format, dotString, dotOptions);
+		if (cacheKey != null) {
+			final String cached = LayoutCache.getInstance().get(cacheKey);
+			if (cached != null) {
+				if (basefile != null) {
+					final SFile f = basefile.getTraceFile("svek." + format);
+					SvekUtils.traceString(f, cached);
+				}
+				return cached;
+			}
+		}
 		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		boolean cacheable = cacheKey != null;
 		try {
 			final ProcessState state = graphviz.createFile3(baos);
 			baos.close();
@@ -313,6 +345,7 @@ public class DotStringFactory implements Moveable {
 				throw new IllegalStateException("Timeout4 " + state, state.getCause());
 			}
 		} catch (GraphvizJsRuntimeException e) {
+			cacheable = false;
 			System.err.println("GraphvizJsRuntimeException");
 			graphvizVersion = GraphvizJs.getGraphvizVersion(true);
 			dotString = createDotString(dotOptions);
@@ -326,15 +359,23 @@ public class DotStringFactory implements Moveable {
 		}
 		final byte[] result = baos.toByteArray();
 		final String s = new String(result, "UTF-8");
+		if (cacheable && s.length() > 0) {
+			LayoutCache.getInstance().put(cacheKey, s);
+		}
 
 		if (basefile != null) {
-			final SFile f = basefile.getTraceFile("svek.svg");
+			final SFile f = basefile.getTraceFile("svek." + format);
 			SvekUtils.traceString(f, s);
 		}
 
 		return s;
 	}
 
+	public boolean isJsonAvailable() {
+		final Graphviz graphviz = GraphvizUtils.create(skinParam, "json");
+		return graphviz instanceof GraphvizJs == false;
+	}
+
 	public boolean illegalDotExe() {
 		final Graphviz graphviz = GraphvizUtils.create(skinParam, "svg");
 		if (graphviz instanceof GraphvizJs) {
@@ -368,7 +409,7 @@ public class DotStringFactory implements Moveable {
 		final Point2DFunction move = new YDelta(fullHeight);
 		final SvgResult svgResult = new SvgResult(svg, move);
 		for (Node node : bibliotekon.allNodes()) {
-			int idx = svg.indexOf("<title>" + node.getUid() + "</title>");
+			int idx = svgResult.indexOfTitle(node.getUid());
 			if (node.getType() == ShapeType.RECTANGLE || node.getType() == ShapeType.RECTANGLE_HTML_FOR_PORTS
 					|| node.getType() == ShapeType.RECTANGLE_WITH_CIRCLE_INSIDE || node.getType() == ShapeType.FOLDER
 					|| node.getType() == ShapeType.DIAMOND) {
@@ -424,7 +465,7 @@ public class DotStringFactory implements Moveable {
 					continue;
 				}
 			}
-			int idx = getClusterIndex(svg, cluster.getColor());
+			int idx = getClusterIndex(svgResult, cluster.getColor());
 			final int starting = idx;
 			final List<Point2D.Double> points = svgResult.substring(starting).extractList(SvgResult.POINTS_EQUALS);
 			final double minX = SvekUtils.getMinX(points);
@@ -437,7 +478,7 @@ public class DotStringFactory implements Moveable {
 			if (cluster.getTitleAndAttributeWidth() == 0 || cluster.getTitleAndAttributeHeight() == 0) {
 				continue;
 			}
-			idx = getClusterIndex(svg, cluster.getTitleColor());
+			idx = getClusterIndex(svgResult, cluster.getTitleColor());
 			final int starting1 = idx;
 			final List<Point2D.Double> pointsTitle = svgResult.substring(starting1)
 					.extractList(SvgResult.POINTS_EQUALS);
@@ -458,13 +499,112 @@ public class DotStringFactory implements Moveable {
 //		// return new ClusterPosition(0, 0, fullWidth, fullHeight);
 	}
 
-	private int getClusterIndex(final String svg, int colorInt) {
+	/**
+	 * Same as {@link #solve(boolean, EntityFactory, String)}, reading the
+	 * <code>-Tjson</code> output of Graphviz.
+	 */
+	public void solveJson(boolean mergeIntricated, EntityFactory entityFactory, final String json)
+			throws IOException, InterruptedException {
+		if (json.length() == 0) {
+			throw new EmptySvgException();
+		}
+
+		final JsonResult jsonResult = new JsonResult(json);
+		for (Node node : bibliotekon.allNodes()) {
+			int idx = jsonResult.indexOfTitle(node.getUid());
+			if (idx == -1) {
+				throw new IllegalStateException("Cannot find node " + node.getUid());
+			}
+			if (node.getType() == ShapeType.RECTANGLE || node.getType() == ShapeType.RECTANGLE_HTML_FOR_PORTS
+					|| node.getType() == ShapeType.RECTANGLE_WITH_CIRCLE_INSIDE || node.getType() == ShapeType.FOLDER
+					|| node.getType() == ShapeType.DIAMOND) {
+				final List<Point2D.Double> points = jsonResult.extractPolygon(idx);
+				final double minY = SvekUtils.getMinY(points);
+				final double minX = SvekUtils.getMinX(points);
+				node.moveSvek(minX, minY);
+			} else if (node.getType() == ShapeType.ROUND_RECTANGLE) {
+				final int idx2 = jsonResult.indexOfPath(idx);
+				idx = jsonResult.indexOfPolygon(idx);
+				final List<Point2D.Double> points;
+				if (idx2 != -1 && (idx == -1 || idx2 < idx)) {
+					// GraphViz 2.30
+					points = jsonResult.extractPath(idx2);
+				} else {
+					points = jsonResult.extractPolygon(idx);
+					for (int i = 0; i < 3 && idx != -1; i++) {
+						idx = jsonResult.indexOfPolygon(idx + 1);
+						points.addAll(jsonResult.extractPolygon(idx));
+					}
+				}
+				final double minX = SvekUtils.getMinX(points);
+				final double minY = SvekUtils.getMinY(points);
+				node.moveSvek(minX, minY);
+			} else if (node.getType() == ShapeType.OCTAGON) {
+				final List<Point2D.Double> points = jsonResult.extractPolygon(idx);
+				final double minX = SvekUtils.getMinX(points);
+				final double minY = SvekUtils.getMinY(points);
+				node.moveSvek(minX, minY);
+				node.setOctagon(minX, minY, points);
+			} else if (node.getType() == ShapeType.CIRCLE || node.getType() == ShapeType.CIRCLE_IN_RECT
+					|| node.getType() == ShapeType.OVAL) {
+				final double[] ellipse = jsonResult.extractEllipse(idx);
+				final double cx = ellipse[0];
+				final double cy = ellipse[1];
+				final double rx = ellipse[2];
+				final double ry = ellipse[3];
+				node.moveSvek(cx - rx, cy - ry);
+			} else {
+				throw new IllegalStateException(node.getType().toString() + " " + node.getUid());
+			}
+		}
+
+		for (Cluster cluster : bibliotekon.allCluster()) {
+			if (mergeIntricated) {
+				final IGroup group = cluster.getGroups().iterator().next();
+				if (entityFactory.isIntricated(group) != null) {
+					continue;
+				}
+			}
+			final List<Point2D.Double> points = jsonResult.extractPolygon(getClusterIndex(jsonResult,
+					cluster.getColor()));
+			final double minX = SvekUtils.getMinX(points);
+			final double minY = SvekUtils.getMinY(points);
+			final double maxX = SvekUtils.getMaxX(points);
+			final double maxY = SvekUtils.getMaxY(points);
+			cluster.setPosition(minX, minY, maxX, maxY);
+
+			if (cluster.getTitleAndAttributeWidth() == 0 || cluster.getTitleAndAttributeHeight() == 0) {
+				continue;
+			}
+			final List<Point2D.Double> pointsTitle = jsonResult.extractPolygon(getClusterIndex(jsonResult,
+					cluster.getTitleColor()));
+			final double minXtitle = SvekUtils.getMinX(pointsTitle);
+			final double minYtitle = SvekUtils.getMinY(pointsTitle);
+			cluster.setTitlePosition(minXtitle, minYtitle);
+		}
+
+		for (Line line : bibliotekon.allLines()) {
+			line.solveLine(jsonResult);
+		}
+
+		for (Line line : bibliotekon.allLines()) {
+			line.manageCollision(bibliotekon.allNodes());
+		}
+	}
+
+	private int getClusterIndex(final JsonResult json, int colorInt) {
+		final int idx = json.indexOfAnyColor(colorInt);
+		if (idx == -1) {
+			throw new IllegalStateException("Cannot find color " + sharp000000(colorInt));
+		}
+		return idx;
+	}
+
+	private int getClusterIndex(final SvgResult svg, int colorInt) {
 		final String colorString = StringUtils.goLowerCase(DotStringFactory.sharp000000(colorInt));
-		final String keyTitle1 = "=\"" + colorString + "\"";
-		int idx = svg.indexOf(keyTitle1);
+		int idx = svg.indexOfColor(SvgIndex.ANY_EQUALS, colorString);
 		if (idx == -1) {
-			final String keyTitle2 = "stroke:" + colorString + ";";
-			idx = svg.indexOf(keyTitle2);
+			idx = svg.indexOfColor(SvgIndex.STROKE, colorString);
 		}
 		if (idx == -1) {
 			throw new IllegalStateException("Cannot find color " + colorString);
@@ -88,6 +88,7 @@ import net.sourceforge.plantuml.cucadiagram.Stereotype;
 import net.sourceforge.plantuml.cucadiagram.UnparsableGraphvizException;
 import net.sourceforge.plantuml.cucadiagram.dot.DotData;
 import net.sourceforge.plantuml.cucadiagram.dot.ExeState;
+import net.sourceforge.plantuml.cucadiagram.dot.Graphviz;
 import net.sourceforge.plantuml.cucadiagram.dot.GraphvizVersion;
 import net.sourceforge.plantuml.cucadiagram.dot.Neighborhood;
 import net.sourceforge.plantuml.cucadiagram.entity.EntityFactory;
@@ -141,6 +142,7 @@ import net.sourceforge.plantuml.ugraphic.MinMax;
 import net.sourceforge.plantuml.ugraphic.UGraphic;
 import net.sourceforge.plantuml.ugraphic.UStroke;
 import net.sourceforge.plantuml.ugraphic.color.HColor;
+import net.sourceforge.plantuml.vizjs.GraphvizJs;
 
 public final class GeneralImageBuilder {
 
@@ -313,6 +315,15 @@ public final class GeneralImageBuilder {
 	private final boolean mergeIntricated;
 	private final SName styleName;
 
+	// State kept between the steps of buildImage()
+	private DotStringFactory dotStringFactory;
+	private boolean json;
+	private String dotString;
+	private Graphviz graphviz;
+	// Used when Graphviz gives no json output
+	private Graphviz graphvizSvg;
+	private String graphvizOutput;
+
 	public GeneralImageBuilder(boolean mergeIntricated, DotData dotData, EntityFactory entityFactory, UmlSource source,
 			Pragma pragma, StringBounder stringBounder, SName styleName) {
 		this.dotData = dotData;
@@ -392,6 +403,16 @@ public final class GeneralImageBuilder {
 	}
 
 	public IEntityImage buildImage(BaseFile basefile, String dotStrings[]) {
+		final IEntityImage result = prepareImage(dotStrings);
+		if (result != null) {
+			return result;
+		}
+		runGraphviz(basefile, dotStrings);
+		return finishImage();
+	}
+
+	// First step of buildImage(): returns the final image when Graphviz is not needed or cannot be used
+	IEntityImage prepareImage(String dotStrings[]) {
 		if (dotData.isDegeneratedWithFewEntities(0)) {
 			return new EntityImageSimpleEmpty(dotData.getSkinParam().getBackgroundColor(false));
 		}
@@ -406,7 +427,7 @@ public final class GeneralImageBuilder {
 			}
 		}
 		dotData.removeIrrelevantSametail();
-		final DotStringFactory dotStringFactory = new DotStringFactory(stringBounder, dotData);
+		dotStringFactory = new DotStringFactory(stringBounder, dotData);
 
 		printGroups(dotStringFactory, dotData.getRootGroup());
 		printEntities(dotStringFactory, getUnpackagedEntities());
@@ -455,22 +476,55 @@ public final class GeneralImageBuilder {
 			return error(dotStringFactory.getDotExe());
 		}
 
+		json = isSvekJson() && dotStringFactory.isJsonAvailable();
+		dotString = dotStringFactory.createDotString(dotStrings);
+		graphviz = dotStringFactory.createGraphviz(dotString, json ? "json" : "svg");
+		if (json) {
+			Log.info("Svek: reading the json output of Graphviz (unverified mode)");
+			graphvizSvg = dotStringFactory.createGraphviz(dotString, "svg");
+		}
+		return null;
+	}
+
+	// Second step of buildImage(): only runs Graphviz, so builders sharing the same skin may do it concurrently
+	void runGraphviz(BaseFile basefile, String dotStrings[]) {
 		if (basefile == null && isSvekTrace()) {
 			basefile = new BaseFile();
 		}
 
-		final String svg;
 		try {
-			svg = dotStringFactory.getSvg(basefile, dotStrings);
+			graphvizOutput = dotStringFactory.getGraphvizOutput(basefile, dotStrings, json ? "json" : "svg", dotString,
+					graphviz);
+			if (json && graphvizOutput.length() == 0) {
+				// Graphviz older than 2.40 does not know -Tjson
+				Log.info("No json output from Graphviz, using svg");
+				json = false;
+				graphvizOutput = dotStringFactory.getGraphvizOutput(basefile, dotStrings, "svg", dotString,
+						graphvizSvg);
+			}
 		} catch (IOException e) {
-			return new GraphvizCrash(source.getPlainString());
+			graphvizOutput = null;
 		}
-		if (svg.length() == 0) {
+	}
+
+	// GraphvizJs may rebuild the DOT string from the skin parameters on error
+	boolean isRunnableConcurrently() {
+		return graphviz instanceof GraphvizJs == false;
+	}
+
+	// Last step of buildImage()
+	IEntityImage finishImage() {
+		final String svg = graphvizOutput;
+		if (svg == null || svg.length() == 0) {
 			return new GraphvizCrash(source.getPlainString());
 		}
 		final String graphvizVersion = extractGraphvizVersion(svg);
 		try {
-			dotStringFactory.solve(mergeIntricated, dotData.getEntityFactory(), svg);
+			if (json) {
+				dotStringFactory.solveJson(mergeIntricated, dotData.getEntityFactory(), svg);
+			} else {
+				dotStringFactory.solve(mergeIntricated, dotData.getEntityFactory(), svg);
+			}
 			final SvekResult result = new SvekResult(dotData, dotStringFactory);
 			this.maxX = dotStringFactory.getBibliotekon().getMaxX();
 			return result;
@@ -481,6 +535,18 @@ public final class GeneralImageBuilder {
 
 	}
 
+	/**
+	 * <code>!pragma svek_output json</code> reads the layout from the
+	 * <code>-Tjson</code> output of Graphviz.
+	 * 
+	 * This mode is unverified: it has only been checked against a stub dot, never
+	 * against a real Graphviz. Run {@link JsonResultCheck} on <code>.svg</code>
+	 * and <code>.json</code> pairs from a real dot before relying on it.
+	 */
+	private boolean isSvekJson() {
+		return "json".equalsIgnoreCase(pragma.getValue("svek_output"));
+	}
+
 	private boolean isSvekTrace() {
 		final String value = pragma.getValue("svek_trace");
 		return "true".equalsIgnoreCase(value) || "on".equalsIgnoreCase(value);
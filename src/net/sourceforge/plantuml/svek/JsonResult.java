@@ -0,0 +1,419 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml.svek;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.plantuml.StringUtils;
+import net.sourceforge.plantuml.json.Json;
+import net.sourceforge.plantuml.json.JsonArray;
+import net.sourceforge.plantuml.json.JsonObject;
+import net.sourceforge.plantuml.json.JsonValue;
+import net.sourceforge.plantuml.posimo.DotPath;
+
+/**
+ * Layout read from the <code>-Tjson</code> output of Graphviz.
+ * <p>
+ * The xdot drawing operations of the graph, of its clusters, of its nodes and
+ * of its edges are kept in a single list, in this order. Each operation knows
+ * the stroke and the fill colors that the SVG output would give to the same
+ * element, so that the searches done by {@link SvgResult} on the SVG text can
+ * be done here on the operations, with coordinates that are exactly the ones
+ * read from the SVG.
+ */
+class JsonResult implements ColoredPoints {
+
+	// Default "pad" of Graphviz, in points
+	private static final double PAD = 4;
+
+	private final List<DrawOp> ops = new ArrayList<DrawOp>();
+	private final Map<String, Integer> titles = new HashMap<String, Integer>();
+	private final Map<String, Integer> firstStroke = new HashMap<String, Integer>();
+	private final Map<String, Integer> firstFill = new HashMap<String, Integer>();
+	private final Map<String, Integer> lastUse = new HashMap<String, Integer>();
+	private final int fullHeight;
+	private final Point2DFunction function;
+
+	static class DrawOp {
+
+		private final char op;
+		private final String stroke;
+		private final String fill;
+		private final List<Point2D.Double> points;
+		private final double[] rect;
+
+		private DrawOp(char op, String stroke, String fill, List<Point2D.Double> points, double[] rect) {
+			this.op = op;
+			this.stroke = stroke;
+			this.fill = fill;
+			this.points = points;
+			this.rect = rect;
+		}
+
+		private boolean isPolygon() {
+			return op == 'P' || op == 'p' || op == 'L';
+		}
+
+		private boolean isPath() {
+			return op == 'B' || op == 'b';
+		}
+
+		private boolean isEllipse() {
+			return op == 'E' || op == 'e';
+		}
+	}
+
+	JsonResult(String json) {
+		final JsonObject graph = Json.parse(json).asObject();
+		final String[] bb = graph.getString("bb", "0,0,0,0").split(",");
+		final double height = Double.parseDouble(bb[3]) - Double.parseDouble(bb[1]);
+		// Same rounding as the height="...pt" attribute of the SVG output
+		this.fullHeight = (int) (height + 2 * PAD + 0.5);
+		this.function = new YDelta(fullHeight);
+
+		addObject(graph);
+		final JsonValue objects = graph.get("objects");
+		if (objects != null) {
+			for (JsonValue object : objects.asArray()) {
+				addObject(object.asObject());
+			}
+		}
+		final JsonValue edges = graph.get("edges");
+		if (edges != null) {
+			for (JsonValue edge : edges.asArray()) {
+				addObject(edge.asObject());
+			}
+		}
+	}
+
+	private void addObject(JsonObject object) {
+		final String name = object.getString("name", null);
+		if (name != null && titles.containsKey(name) == false) {
+			titles.put(name, ops.size());
+		}
+		// Order used by Graphviz when it writes the SVG of an element
+		addOps(object.get("_draw_"));
+		addOps(object.get("_tdraw_"));
+		addOps(object.get("_hdraw_"));
+		addOps(object.get("_ldraw_"));
+		addOps(object.get("_hldraw_"));
+		addOps(object.get("_tldraw_"));
+	}
+
+	private void addOps(JsonValue draw) {
+		if (draw == null) {
+			return;
+		}
+		String pen = "black";
+		String fillColor = "lightgrey";
+		for (JsonValue value : draw.asArray()) {
+			final JsonObject data = value.asObject();
+			final char op = data.getString("op", " ").charAt(0);
+			if (op == 'c') {
+				pen = getColor(data);
+			} else if (op == 'C') {
+				fillColor = getColor(data);
+			} else if (op == 'T') {
+				add(new DrawOp(op, null, pen, null, null));
+			} else if (op == 'P' || op == 'B' || op == 'E') {
+				add(new DrawOp(op, pen, fillColor, getPoints(op, data.get("points")), getRect(data.get("rect"))));
+			} else if (op == 'p' || op == 'b' || op == 'e' || op == 'L') {
+				add(new DrawOp(op, pen, "none", getPoints(op, data.get("points")), getRect(data.get("rect"))));
+			}
+		}
+	}
+
+	private static String getColor(JsonObject data) {
+		final String color = data.getString("color", null);
+		if (color == null) {
+			// Gradients have no single color
+			return "none";
+		}
+		if (color.length() == 9 && color.startsWith("#")) {
+			// "#rrggbbaa": the SVG output gives the alpha in another attribute
+			if (color.endsWith("00")) {
+				return "transparent";
+			}
+			return StringUtils.goLowerCase(color.substring(0, 7));
+		}
+		return StringUtils.goLowerCase(color);
+	}
+
+	private List<Point2D.Double> getPoints(char op, JsonValue points) {
+		if (points == null) {
+			return Collections.emptyList();
+		}
+		final List<Point2D.Double> result = new ArrayList<Point2D.Double>();
+		for (JsonValue pt : points.asArray()) {
+			final JsonArray xy = pt.asArray();
+			result.add(function.apply(new Point2D.Double(xy.get(0).asDouble(), -xy.get(1).asDouble())));
+		}
+		if ((op == 'P' || op == 'p') && result.size() > 0) {
+			// The SVG output repeats the first point of polygons
+			result.add((Point2D.Double) result.get(0).clone());
+		}
+		return result;
+	}
+
+	private double[] getRect(JsonValue rect) {
+		if (rect == null) {
+			return null;
+		}
+		final JsonArray array = rect.asArray();
+		final double[] result = new double[4];
+		result[0] = array.get(0).asDouble();
+		result[1] = -array.get(1).asDouble() + fullHeight;
+		result[2] = array.get(2).asDouble();
+		result[3] = array.get(3).asDouble();
+		return result;
+	}
+
+	private void add(DrawOp drawOp) {
+		final int idx = ops.size();
+		ops.add(drawOp);
+		if (drawOp.stroke != null && firstStroke.containsKey(drawOp.stroke) == false) {
+			firstStroke.put(drawOp.stroke, idx);
+		}
+		if (firstFill.containsKey(drawOp.fill) == false) {
+			firstFill.put(drawOp.fill, idx);
+		}
+		if (drawOp.stroke != null) {
+			lastUse.put(drawOp.stroke, idx);
+		}
+		lastUse.put(drawOp.fill, idx);
+	}
+
+	int getFullHeight() {
+		return fullHeight;
+	}
+
+	private static String getColorString(int color) {
+		return StringUtils.goLowerCase(DotStringFactory.sharp000000(color));
+	}
+
+	/**
+	 * Index of the first operation of the element with this name, or -1.
+	 */
+	int indexOfTitle(String title) {
+		final Integer result = titles.get(title);
+		if (result == null) {
+			return -1;
+		}
+		return result;
+	}
+
+	/**
+	 * Same search as {@link SvgResult#getIndexFromColor(int)}: stroke first,
+	 * fill then.
+	 */
+	int getIndexFromColor(int color) {
+		final String colorString = getColorString(color);
+		Integer result = firstStroke.get(colorString);
+		if (result == null) {
+			result = firstFill.get(colorString);
+		}
+		if (result == null) {
+			return -1;
+		}
+		return result;
+	}
+
+	/**
+	 * Index of the first operation using this color, as stroke or as fill, or
+	 * -1.
+	 */
+	int indexOfAnyColor(int color) {
+		final String colorString = getColorString(color);
+		final Integer stroke = firstStroke.get(colorString);
+		final Integer fill = firstFill.get(colorString);
+		if (stroke == null && fill == null) {
+			return -1;
+		}
+		if (stroke == null) {
+			return fill;
+		}
+		if (fill == null) {
+			return stroke;
+		}
+		return Math.min(stroke, fill);
+	}
+
+	int indexOfPolygon(int start) {
+		for (int i = Math.max(start, 0); i < ops.size(); i++) {
+			if (ops.get(i).isPolygon()) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	int indexOfPath(int start) {
+		for (int i = Math.max(start, 0); i < ops.size(); i++) {
+			if (ops.get(i).isPath()) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	int indexOfEllipse(int start) {
+		for (int i = Math.max(start, 0); i < ops.size(); i++) {
+			if (ops.get(i).isEllipse()) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Points of the first polygon or polyline found from start, or an empty list.
+	 */
+	List<Point2D.Double> extractPolygon(int start) {
+		final int idx = indexOfPolygon(start);
+		if (idx == -1) {
+			return Collections.emptyList();
+		}
+		return copy(ops.get(idx).points);
+	}
+
+	List<Point2D.Double> extractPath(int idx) {
+		return copy(ops.get(idx).points);
+	}
+
+	private static List<Point2D.Double> copy(List<Point2D.Double> points) {
+		final List<Point2D.Double> result = new ArrayList<Point2D.Double>(points.size());
+		for (Point2D.Double pt : points) {
+			result.add((Point2D.Double) pt.clone());
+		}
+		return result;
+	}
+
+	/**
+	 * Center and radius of the first ellipse found from start: cx, cy, rx, ry.
+	 */
+	double[] extractEllipse(int start) {
+		final int idx = indexOfEllipse(start);
+		if (idx == -1) {
+			throw new IllegalStateException();
+		}
+		return ops.get(idx).rect;
+	}
+
+	/**
+	 * The bezier curve of a path, or null if the path is not made of complete
+	 * segments.
+	 */
+	DotPath getDotPath(int idx) {
+		final List<Point2D.Double> points = ops.get(idx).points;
+		if (points.size() < 4 || (points.size() - 1) % 3 != 0) {
+			return null;
+		}
+		DotPath result = new DotPath();
+		for (int i = 1; i < points.size(); i += 3) {
+			if (i == 1) {
+				result = result.addCurve(points.get(0), points.get(1), points.get(2), points.get(3));
+			} else {
+				result = result.addCurve(points.get(i), points.get(i + 1), points.get(i + 2));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Polygons drawn after the operation at start, as
+	 * {@link SvgResult#getPointsWithThisColor(int)} reads them after a path.
+	 */
+	PointListIterator getPointsWithThisColor(int start, int lineColor) {
+		final Integer last = lastUse.get(getColorString(lineColor));
+		if (last == null || last < start) {
+			return new Polygons(-1);
+		}
+		return new Polygons(start);
+	}
+
+	public List<Point2D.Double> getPointsFromColor(int color) {
+		final int idx = getIndexFromColor(color);
+		if (idx == -1) {
+			return null;
+		}
+		return extractPolygon(idx);
+	}
+
+	private class Polygons implements PointListIterator {
+
+		private int pos;
+
+		private Polygons(int pos) {
+			this.pos = pos;
+		}
+
+		public PointListIterator cloneMe() {
+			return new Polygons(pos);
+		}
+
+		public boolean hasNext() {
+			return true;
+		}
+
+		public List<Point2D.Double> next() {
+			if (pos == -1) {
+				return Collections.emptyList();
+			}
+			final int idx = indexOfPolygon(pos);
+			if (idx == -1) {
+				pos = -1;
+				return Collections.emptyList();
+			}
+			pos = idx + 1;
+			return extractPolygon(idx);
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+	}
+
+}
@@ -0,0 +1,112 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml.svek;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the same Graphviz layouts with the SVG and the json extractors of
+ * svek, and prints the average duration of each.
+ * 
+ * The files are the pairs used by {@link JsonResultCheck}.
+ * 
+ * Usage: <code>JsonResultBenchmark file-or-directory...</code>
+ */
+public class JsonResultBenchmark {
+
+	private static final int NB_WARMUP = 20;
+	private static final int NB_RUNS = 200;
+
+	public static void main(String[] args) throws IOException {
+		final List<JsonResultCheck.Pair> pairs = new ArrayList<JsonResultCheck.Pair>();
+		for (String arg : args) {
+			load(pairs, new File(arg));
+		}
+		if (pairs.size() == 0) {
+			System.err.println("Usage: JsonResultBenchmark file-or-directory...");
+			System.exit(1);
+		}
+		for (int i = 0; i < NB_WARMUP; i++) {
+			run(pairs, false);
+			run(pairs, true);
+		}
+		long svg = 0;
+		long json = 0;
+		for (int i = 0; i < NB_RUNS; i++) {
+			svg += run(pairs, false);
+			json += run(pairs, true);
+		}
+		System.out.println(String.format("pairs=%d svg=%8.3f ms json=%8.3f ms ratio=%5.2f", pairs.size(),
+				svg / 1e6 / NB_RUNS, json / 1e6 / NB_RUNS, 1.0 * json / svg));
+	}
+
+	private static void load(List<JsonResultCheck.Pair> pairs, File file) throws IOException {
+		if (file.isDirectory()) {
+			final File children[] = file.listFiles();
+			if (children != null) {
+				for (File child : children) {
+					load(pairs, child);
+				}
+			}
+			return;
+		}
+		final JsonResultCheck.Pair pair = JsonResultCheck.Pair.load(file);
+		if (pair != null) {
+			pairs.add(pair);
+		}
+	}
+
+	// Duration in nanoseconds of reading every pair once
+	private static long run(List<JsonResultCheck.Pair> pairs, boolean json) {
+		final long start = System.nanoTime();
+		for (JsonResultCheck.Pair pair : pairs) {
+			if (json) {
+				JsonResultCheck.extractJson(pair.json, pair.titles, pair.colors, pair.edgeColors);
+			} else {
+				JsonResultCheck.extractSvg(pair.svg, pair.titles, pair.colors, pair.edgeColors);
+			}
+		}
+		return System.nanoTime() - start;
+	}
+
+}
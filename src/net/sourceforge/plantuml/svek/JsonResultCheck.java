@@ -0,0 +1,456 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml.svek;
+
+import java.awt.geom.CubicCurve2D;
+import java.awt.geom.Point2D;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import net.sourceforge.plantuml.StringUtils;
+import net.sourceforge.plantuml.json.Json;
+import net.sourceforge.plantuml.json.JsonObject;
+import net.sourceforge.plantuml.json.JsonValue;
+import net.sourceforge.plantuml.posimo.DotPath;
+
+/**
+ * Reads the same layout from the <code>-Tsvg</code> and the
+ * <code>-Tjson</code> output of Graphviz, with the lookups of
+ * {@link DotStringFactory#solve} and {@link DotStringFactory#solveJson}, and
+ * fails if any position differs.
+ * 
+ * The files must come from a real dot: run PlantUML with
+ * <code>-debugsvek</code>, then <code>dot -Tsvg svek.dot &gt; name.svg</code>
+ * and <code>dot -Tjson svek.dot &gt; name.json</code>. Checked are the full
+ * height (the pad of 4), every node, for every color of the SVG the cluster
+ * and label points, and for every edge the path and arrow points.
+ * 
+ * Usage: <code>JsonResultCheck file-or-directory...</code>, where each
+ * <code>name.json</code> has a sibling <code>name.svg</code>.
+ */
+public class JsonResultCheck {
+
+	private static final Pattern SVG_HEIGHT = Pattern.compile("(?m)\\<svg\\s+width=\"(\\d+)pt\"\\s+height=\"(\\d+)pt\"");
+	private static final Pattern SVG_COLOR = Pattern.compile("(?:fill=\"|stroke=\"|stroke:)#([0-9a-fA-F]{6})");
+	private static final Pattern SVG_EDGE = Pattern.compile("(?s)class=\"edge\">.*?<path[^>]*?stroke=\"#([0-9a-fA-F]{6})\"");
+	private static final double EPSILON = 0.01;
+
+	private int nbFiles;
+	private int nbValues;
+	private int nbMismatches;
+
+	public static void main(String[] args) throws IOException {
+		final JsonResultCheck check = new JsonResultCheck();
+		for (String arg : args) {
+			check.checkFile(new File(arg));
+		}
+		System.out.println("files=" + check.nbFiles + " values=" + check.nbValues + " mismatches="
+				+ check.nbMismatches);
+		if (check.nbMismatches > 0) {
+			System.exit(1);
+		}
+	}
+
+	private void checkFile(File file) throws IOException {
+		if (file.isDirectory()) {
+			final File children[] = file.listFiles();
+			if (children != null) {
+				for (File child : children) {
+					checkFile(child);
+				}
+			}
+			return;
+		}
+		final Pair pair = Pair.load(file);
+		if (pair == null) {
+			return;
+		}
+		nbFiles++;
+		final List<Value> fromSvg = extractSvg(pair.svg, pair.titles, pair.colors, pair.edgeColors);
+		final List<Value> fromJson = extractJson(pair.json, pair.titles, pair.colors, pair.edgeColors);
+		for (int i = 0; i < fromSvg.size(); i++) {
+			nbValues++;
+			final Value svg = fromSvg.get(i);
+			final Value json = fromJson.get(i);
+			if (svg.sameAs(json) == false) {
+				nbMismatches++;
+				System.err.println(file + ": " + svg.key + " svg=" + svg + " json=" + json);
+			}
+		}
+	}
+
+	/**
+	 * A <code>name.json</code> file, its sibling <code>name.svg</code>, and what
+	 * to look up in both.
+	 */
+	static class Pair {
+
+		final String svg;
+		final String json;
+		final List<String> titles = new ArrayList<String>();
+		final List<Integer> colors = new ArrayList<Integer>();
+		final List<Integer> edgeColors = new ArrayList<Integer>();
+
+		private Pair(String svg, String json) {
+			this.svg = svg;
+			this.json = json;
+			// Nodes only: svek finds clusters by color, and Graphviz names edges
+			// differently in both formats
+			final JsonValue objects = Json.parse(json).asObject().get("objects");
+			if (objects != null) {
+				for (JsonValue value : objects.asArray()) {
+					final JsonObject object = value.asObject();
+					final String name = object.getString("name", null);
+					if (name != null && object.get("nodes") == null && name.startsWith("cluster") == false) {
+						titles.add(name);
+					}
+				}
+			}
+			final Set<Integer> all = new LinkedHashSet<Integer>();
+			final Matcher m = SVG_COLOR.matcher(svg);
+			while (m.find()) {
+				all.add(Integer.parseInt(m.group(1), 16));
+			}
+			colors.addAll(all);
+			final Matcher edge = SVG_EDGE.matcher(svg);
+			while (edge.find()) {
+				edgeColors.add(Integer.parseInt(edge.group(1), 16));
+			}
+		}
+
+		static Pair load(File file) throws IOException {
+			final String name = file.getName();
+			if (name.endsWith(".json") == false) {
+				return null;
+			}
+			final File svg = new File(file.getParentFile(), name.substring(0, name.length() - 5) + ".svg");
+			if (svg.exists() == false) {
+				System.err.println(file + ": no " + svg.getName());
+				return null;
+			}
+			return new Pair(read(svg), read(file));
+		}
+
+		static String read(File file) throws IOException {
+			final BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+			try {
+				final StringBuilder sb = new StringBuilder();
+				String s;
+				while ((s = br.readLine()) != null) {
+					sb.append(s).append('\n');
+				}
+				return sb.toString();
+			} finally {
+				br.close();
+			}
+		}
+	}
+
+	/**
+	 * Some coordinates found for a key, or null if the lookup found nothing.
+	 */
+	static class Value {
+
+		private final String key;
+		private final double values[];
+
+		Value(String key, double... values) {
+			this.key = key;
+			this.values = values;
+		}
+
+		Value(String key, List<Point2D.Double> points) {
+			this.key = key;
+			if (points == null) {
+				this.values = null;
+			} else {
+				this.values = new double[points.size() * 2];
+				for (int i = 0; i < points.size(); i++) {
+					values[2 * i] = points.get(i).x;
+					values[2 * i + 1] = points.get(i).y;
+				}
+			}
+		}
+
+		Value(String key, DotPath path) {
+			this.key = key;
+			if (path == null) {
+				this.values = null;
+			} else {
+				final List<CubicCurve2D.Double> beziers = path.getBeziers();
+				this.values = new double[beziers.size() * 8];
+				int i = 0;
+				for (CubicCurve2D.Double bez : beziers) {
+					values[i++] = bez.x1;
+					values[i++] = bez.y1;
+					values[i++] = bez.ctrlx1;
+					values[i++] = bez.ctrly1;
+					values[i++] = bez.ctrlx2;
+					values[i++] = bez.ctrly2;
+					values[i++] = bez.x2;
+					values[i++] = bez.y2;
+				}
+			}
+		}
+
+		boolean sameAs(Value other) {
+			if (values == null || other.values == null) {
+				return values == other.values;
+			}
+			if (values.length != other.values.length) {
+				return false;
+			}
+			for (int i = 0; i < values.length; i++) {
+				if (Math.abs(values[i] - other.values[i]) > EPSILON) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			if (values == null) {
+				return "null";
+			}
+			final StringBuilder sb = new StringBuilder("[");
+			for (int i = 0; i < values.length; i++) {
+				if (i > 0) {
+					sb.append(' ');
+				}
+				sb.append(values[i]);
+			}
+			return sb.append(']').toString();
+		}
+	}
+
+	// Node shape found first after the title
+	private static final double POLYGON = 1;
+	private static final double PATH = 2;
+	private static final double ELLIPSE = 3;
+	private static final double NONE = 0;
+
+	static List<Value> extractSvg(String svg, List<String> titles, List<Integer> colors, List<Integer> edgeColors) {
+		final List<Value> result = new ArrayList<Value>();
+		final Matcher mGraph = SVG_HEIGHT.matcher(svg);
+		if (mGraph.find() == false) {
+			throw new IllegalStateException();
+		}
+		final int fullHeight = Integer.parseInt(mGraph.group(2));
+		result.add(new Value("height", fullHeight));
+		final SvgResult svgResult = new SvgResult(svg, new YDelta(fullHeight));
+
+		for (String title : titles) {
+			final int idx = svgResult.indexOfTitle(title);
+			if (idx == -1) {
+				result.add(new Value(title, (List<Point2D.Double>) null));
+				continue;
+			}
+			final int polygon = svg.indexOf("points=\"", idx + 1);
+			final int path = svg.indexOf(" d=\"", idx + 1);
+			final int ellipse = svg.indexOf("<ellipse", idx + 1);
+			final int next = svg.indexOf("<title>", idx + 1);
+			final int first = first(first(polygon, path), ellipse);
+			if (first == -1 || (next != -1 && first > next)) {
+				result.add(new Value(title + " shape", NONE));
+			} else if (first == polygon) {
+				result.add(new Value(title + " shape", POLYGON));
+				final List<Point2D.Double> points = svgResult.substring(polygon).extractList(SvgResult.POINTS_EQUALS);
+				// The four polygons of a round rectangle
+				int idx2 = polygon;
+				for (int i = 0; i < 3 && idx2 != -1; i++) {
+					idx2 = svg.indexOf("points=\"", idx2 + 1);
+					if (idx2 != -1) {
+						points.addAll(svgResult.substring(idx2).extractList(SvgResult.POINTS_EQUALS));
+					}
+				}
+				result.add(new Value(title, points));
+			} else if (first == path) {
+				result.add(new Value(title + " shape", PATH));
+				result.add(new Value(title, svgResult.substring(path).extractList(SvgResult.D_EQUALS)));
+			} else {
+				result.add(new Value(title + " shape", ELLIPSE));
+				result.add(new Value(title, SvekUtils.getValue(svg, idx, "cx"),
+						SvekUtils.getValue(svg, idx, "cy") + fullHeight, SvekUtils.getValue(svg, idx, "rx"),
+						SvekUtils.getValue(svg, idx, "ry")));
+			}
+		}
+
+		for (int color : colors) {
+			final String colorString = StringUtils.goLowerCase(DotStringFactory.sharp000000(color));
+			int idx = svgResult.indexOfColor(SvgIndex.ANY_EQUALS, colorString);
+			if (idx == -1) {
+				idx = svgResult.indexOfColor(SvgIndex.STROKE, colorString);
+			}
+			result.add(new Value("cluster " + colorString, idx == -1 ? null
+					: svgResult.substring(idx).extractList(SvgResult.POINTS_EQUALS)));
+			result.add(new Value("label " + colorString, svgResult.getPointsFromColor(color)));
+		}
+
+		for (int color : edgeColors) {
+			final String colorString = StringUtils.goLowerCase(DotStringFactory.sharp000000(color));
+			// As in Line.solveLine(SvgResult)
+			DotPath dotPath = null;
+			PointListIterator arrows = null;
+			int idx = svgResult.getIndexFromColor(color);
+			if (idx != -1) {
+				idx = svgResult.indexOf("d=\"", idx);
+			}
+			if (idx != -1) {
+				final int end = svgResult.indexOf("\"", idx + 3);
+				final SvgResult path = svgResult.substring(idx + 3, end);
+				if (DotPath.isPathConsistent(path.getSvg())) {
+					dotPath = new DotPath(path);
+					arrows = svgResult.substring(end).getPointsWithThisColor(color);
+				}
+			}
+			addPath(result, colorString, dotPath, arrows);
+		}
+		return result;
+	}
+
+	static List<Value> extractJson(String json, List<String> titles, List<Integer> colors,
+			List<Integer> edgeColors) {
+		final List<Value> result = new ArrayList<Value>();
+		final JsonResult jsonResult = new JsonResult(json);
+		result.add(new Value("height", jsonResult.getFullHeight()));
+
+		for (String title : titles) {
+			final int idx = jsonResult.indexOfTitle(title);
+			if (idx == -1) {
+				result.add(new Value(title, (List<Point2D.Double>) null));
+				continue;
+			}
+			final int polygon = jsonResult.indexOfPolygon(idx);
+			final int path = jsonResult.indexOfPath(idx);
+			final int ellipse = jsonResult.indexOfEllipse(idx);
+			final int next = nextTitle(jsonResult, titles, idx);
+			final int first = first(first(polygon, path), ellipse);
+			if (first == -1 || (next != -1 && first >= next)) {
+				result.add(new Value(title + " shape", NONE));
+			} else if (first == polygon) {
+				result.add(new Value(title + " shape", POLYGON));
+				final List<Point2D.Double> points = jsonResult.extractPolygon(polygon);
+				int idx2 = polygon;
+				for (int i = 0; i < 3 && idx2 != -1; i++) {
+					idx2 = jsonResult.indexOfPolygon(idx2 + 1);
+					if (idx2 != -1) {
+						points.addAll(jsonResult.extractPolygon(idx2));
+					}
+				}
+				result.add(new Value(title, points));
+			} else if (first == path) {
+				result.add(new Value(title + " shape", PATH));
+				result.add(new Value(title, jsonResult.extractPath(path)));
+			} else {
+				result.add(new Value(title + " shape", ELLIPSE));
+				result.add(new Value(title, jsonResult.extractEllipse(ellipse).clone()));
+			}
+		}
+
+		for (int color : colors) {
+			final String colorString = StringUtils.goLowerCase(DotStringFactory.sharp000000(color));
+			final int cluster = jsonResult.indexOfAnyColor(color);
+			result.add(new Value("cluster " + colorString, cluster == -1 ? null : jsonResult
+					.extractPolygon(cluster)));
+			result.add(new Value("label " + colorString, jsonResult.getPointsFromColor(color)));
+		}
+
+		for (int color : edgeColors) {
+			final String colorString = StringUtils.goLowerCase(DotStringFactory.sharp000000(color));
+			// As in Line.solveLine(JsonResult)
+			DotPath dotPath = null;
+			PointListIterator arrows = null;
+			int idx = jsonResult.getIndexFromColor(color);
+			if (idx != -1) {
+				idx = jsonResult.indexOfPath(idx);
+			}
+			if (idx != -1) {
+				dotPath = jsonResult.getDotPath(idx);
+				if (dotPath != null) {
+					arrows = jsonResult.getPointsWithThisColor(idx + 1, color);
+				}
+			}
+			addPath(result, colorString, dotPath, arrows);
+		}
+		return result;
+	}
+
+	// Line.getExtremity reads at most two polygons, one per end
+	private static void addPath(List<Value> result, String colorString, DotPath dotPath, PointListIterator arrows) {
+		result.add(new Value("path " + colorString, dotPath));
+		for (int i = 1; i <= 2; i++) {
+			final List<Point2D.Double> points = arrows == null ? null : arrows.next();
+			result.add(new Value("arrow" + i + " " + colorString, points));
+		}
+	}
+
+	private static int first(int idx1, int idx2) {
+		if (idx1 == -1) {
+			return idx2;
+		}
+		if (idx2 == -1) {
+			return idx1;
+		}
+		return Math.min(idx1, idx2);
+	}
+
+	// First operation of the next node, as the next <title> of the SVG
+	private static int nextTitle(JsonResult jsonResult, List<String> titles, int idx) {
+		int result = -1;
+		for (String title : titles) {
+			final int other = jsonResult.indexOfTitle(title);
+			if (other > idx && (result == -1 || other < result)) {
+				result = other;
+			}
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,204 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml.svek;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.sourceforge.plantuml.Log;
+import net.sourceforge.plantuml.LruCache;
+import net.sourceforge.plantuml.SignatureUtils;
+import net.sourceforge.plantuml.StringUtils;
+import net.sourceforge.plantuml.cucadiagram.dot.Graphviz;
+import net.sourceforge.plantuml.cucadiagram.dot.GraphvizVersions;
+import net.sourceforge.plantuml.security.SFile;
+import net.sourceforge.plantuml.security.SecurityUtils;
+import net.sourceforge.plantuml.vizjs.GraphvizJs;
+
+/**
+ * SVG already produced by Graphviz, identified by a hash of the DOT string, the
+ * dot options and the Graphviz version.
+ * <p>
+ * Results are kept in memory, least recently used ones being evicted above a
+ * total size. When PLANTUML_LAYOUT_CACHE_DIR is set, they are also stored in
+ * this directory, so that they survive the JVM.
+ */
+public final class LayoutCache {
+
+	private static final int MAX_CHARS = 16 * 1024 * 1024;
+
+	private static final LayoutCache singleton = new LayoutCache();
+
+	private final LruCache<String, String> entries = new LruCache<String, String>(MAX_CHARS) {
+		@Override
+		protected long sizeOf(String value) {
+			return value.length();
+		}
+	};
+
+	private final AtomicLong nbHit = new AtomicLong();
+	private final AtomicLong nbMiss = new AtomicLong();
+
+	private LayoutCache() {
+	}
+
+	public static LayoutCache getInstance() {
+		return singleton;
+	}
+
+	public long getNbHit() {
+		return nbHit.get();
+	}
+
+	public long getNbMiss() {
+		return nbMiss.get();
+	}
+
+	@Override
+	public String toString() {
+		return "LayoutCache hit=" + nbHit + " miss=" + nbMiss;
+	}
+
+	/**
+	 * Key of a layout, or <code>null</code> if the Graphviz version cannot be
+	 * known.
+	 */
+	static String getKey(Graphviz graphviz, String format, String dotString, String[] dotOptions) {
+		final String engine;
+		if (graphviz instanceof GraphvizJs) {
+			engine = "vizjs";
+		} else {
+			final File dotExe = graphviz.getDotExe();
+			if (dotExe == null || dotExe.isFile() == false) {
+				return null;
+			}
+			engine = dotExe.getAbsolutePath() + " " + GraphvizVersions.getInstance().getFullVersion(dotExe);
+		}
+		final String options = dotOptions == null ? "" : Arrays.asList(dotOptions).toString();
+		return SignatureUtils.getSHA512Hex(engine + "\n" + format + " " + options + "\n" + dotString);
+	}
+
+	String get(String key) {
+		String result = entries.get(key);
+		if (result == null) {
+			result = readFromDisk(key);
+			if (result != null) {
+				entries.put(key, result);
+			}
+		}
+		if (result == null) {
+			nbMiss.incrementAndGet();
+		} else {
+			nbHit.incrementAndGet();
+			Log.info("Layout found in cache");
+		}
+		return result;
+	}
+
+	void put(String key, String svg) {
+		entries.put(key, svg);
+		writeToDisk(key, svg);
+	}
+
+	private static SFile getDiskFile(String key) {
+		final String dir = SecurityUtils.getenv("PLANTUML_LAYOUT_CACHE_DIR");
+		if (StringUtils.isEmpty(dir)) {
+			return null;
+		}
+		return new SFile(StringUtils.eventuallyRemoveStartingAndEndingDoubleQuote(dir), key + ".svg");
+	}
+
+	private static String readFromDisk(String key) {
+		final SFile file = getDiskFile(key);
+		if (file == null || file.exists() == false) {
+			return null;
+		}
+		final InputStream is = file.openFile();
+		if (is == null) {
+			return null;
+		}
+		try {
+			try {
+				final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+				final byte[] buffer = new byte[8192];
+				int read;
+				while ((read = is.read(buffer)) != -1) {
+					baos.write(buffer, 0, read);
+				}
+				return new String(baos.toByteArray(), "UTF-8");
+			} finally {
+				is.close();
+			}
+		} catch (IOException e) {
+			Log.info("Cannot read " + file + " " + e);
+			return null;
+		}
+	}
+
+	// Written in a temporary file with a unique name first, so that another
+	// process never reads a partial layout
+	private static void writeToDisk(String key, String svg) {
+		final SFile file = getDiskFile(key);
+		if (file == null) {
+			return;
+		}
+		try {
+			file.getParentFile().mkdirs();
+			final SFile tmp = SFile.createTempFile(key, ".tmp", file.getParentFile());
+			final OutputStream os = tmp.createBufferedOutputStream();
+			try {
+				os.write(svg.getBytes("UTF-8"));
+			} finally {
+				os.close();
+			}
+			if (tmp.renameTo(file) == false) {
+				tmp.delete();
+			}
+		} catch (IOException e) {
+			Log.info("Cannot write " + file + " " + e);
+		}
+	}
+
+}
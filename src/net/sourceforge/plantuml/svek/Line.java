@@ -512,6 +512,34 @@ public class Line implements Moveable, Hideable, GuideLine {
 		}
 		dotPath = new DotPath(path);
 
+		final SvgResult lineSvg = fullSvg.substring(end);
+		solveLine(lineSvg.getPointsWithThisColor(lineColor), fullSvg);
+	}
+
+	void solveLine(JsonResult fullJson) {
+		if (this.link.isInvis()) {
+			return;
+		}
+
+		int idx = fullJson.getIndexFromColor(this.lineColor);
+		if (idx == -1) {
+			return;
+		}
+		idx = fullJson.indexOfPath(idx);
+		if (idx == -1) {
+			throw new IllegalStateException();
+		}
+		final DotPath path = fullJson.getDotPath(idx);
+		if (path == null) {
+			return;
+		}
+		dotPath = path;
+
+		solveLine(fullJson.getPointsWithThisColor(idx + 1, lineColor), fullJson);
+	}
+
+	private void solveLine(PointListIterator pointListIterator, ColoredPoints fullResult) {
+		final PointListIterator pointListIteratorInit = pointListIterator.cloneMe();
 		if (projectionCluster != null) {
 			// System.err.println("Line::solveLine1 projectionCluster=" +
 			// projectionCluster.getClusterPosition());
@@ -525,9 +553,6 @@ public class Line implements Moveable, Hideable, GuideLine {
 		}
 		dotPath = dotPath.simulateCompound(lhead, ltail);
 
-		final SvgResult lineSvg = fullSvg.substring(end);
-		PointListIterator pointListIterator = lineSvg.getPointsWithThisColor(lineColor);
-
 		final LinkType linkType = link.getType();
 		this.extremity1 = getExtremity(linkType.getDecor2(), pointListIterator, dotPath.getStartPoint(),
 				dotPath.getStartAngle() + Math.PI, ltail, bibliotekon.getNode(link.getEntity1()));
@@ -551,7 +576,7 @@ public class Line implements Moveable, Hideable, GuideLine {
 				final double dist2start = p2.distance(dotPath.getStartPoint());
 				final double dist2end = p2.distance(dotPath.getEndPoint());
 				if (dist1start > dist1end && dist2end > dist2start) {
-					pointListIterator = lineSvg.getPointsWithThisColor(lineColor);
+					pointListIterator = pointListIteratorInit.cloneMe();
 					this.extremity2 = getExtremity(linkType.getDecor1(), pointListIterator, dotPath.getEndPoint(),
 							dotPath.getEndAngle(), lhead, bibliotekon.getNode(link.getEntity2()));
 					this.extremity1 = getExtremity(linkType.getDecor2(), pointListIterator, dotPath.getStartPoint(),
@@ -562,7 +587,7 @@ public class Line implements Moveable, Hideable, GuideLine {
 		}
 
 		if (hasNoteLabelText() || link.getLinkConstraint() != null) {
-			final Point2D pos = getXY(fullSvg, this.noteLabelColor);
+			final Point2D pos = getXY(fullResult, this.noteLabelColor);
 			if (pos != null) {
 //				corner1.manage(pos);
 				this.labelXY = hasNoteLabelText() ? TextBlockUtils.asPositionable(labelText, stringBounder, pos)
@@ -571,7 +596,7 @@ public class Line implements Moveable, Hideable, GuideLine {
 		}
 
 		if (this.startTailText != null) {
-			final Point2D pos = getXY(fullSvg, this.startTailColor);
+			final Point2D pos = getXY(fullResult, this.startTailColor);
 			if (pos != null) {
 //				corner1.manage(pos);
 				this.startTailLabelXY = TextBlockUtils.asPositionable(startTailText, stringBounder, pos);
@@ -579,7 +604,7 @@ public class Line implements Moveable, Hideable, GuideLine {
 		}
 
 		if (this.endHeadText != null) {
-			final Point2D pos = getXY(fullSvg, this.endHeadColor);
+			final Point2D pos = getXY(fullResult, this.endHeadColor);
 			if (pos != null) {
 //				corner1.manage(pos);
 				this.endHeadLabelXY = TextBlockUtils.asPositionable(endHeadText, stringBounder, pos);
@@ -596,12 +621,12 @@ public class Line implements Moveable, Hideable, GuideLine {
 		return dotPath.getBeziers().size() <= 1;
 	}
 
-	private Point2D.Double getXY(SvgResult svgResult, int color) {
-		final int idx = svgResult.getIndexFromColor(color);
-		if (idx == -1) {
+	private Point2D.Double getXY(ColoredPoints fullResult, int color) {
+		final List<Point2D.Double> points = fullResult.getPointsFromColor(color);
+		if (points == null) {
 			return null;
 		}
-		return SvekUtils.getMinXY(svgResult.substring(idx).extractList(SvgResult.POINTS_EQUALS));
+		return SvekUtils.getMinXY(points);
 
 	}
 
@@ -0,0 +1,111 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+
+package net.sourceforge.plantuml.svek;
+
+import java.awt.geom.Dimension2D;
+import java.util.List;
+
+import net.sourceforge.plantuml.Dimension2DDouble;
+import net.sourceforge.plantuml.graphic.AbstractTextBlock;
+import net.sourceforge.plantuml.graphic.StringBounder;
+import net.sourceforge.plantuml.ugraphic.UGraphic;
+import net.sourceforge.plantuml.ugraphic.UTranslate;
+import net.sourceforge.plantuml.ugraphic.color.HColor;
+
+/**
+ * Connected components laid out separately, packed side by side (or one below
+ * the other when the diagram goes left to right).
+ */
+public final class SvekComponents extends AbstractTextBlock implements TextBlockBackcolored {
+
+	private static final double GAP = 10;
+
+	private final List<? extends TextBlockBackcolored> components;
+	private final boolean vertical;
+
+	public SvekComponents(List<? extends TextBlockBackcolored> components, boolean vertical) {
+		if (components.size() == 0) {
+			throw new IllegalArgumentException();
+		}
+		this.components = components;
+		this.vertical = vertical;
+	}
+
+	public void drawU(UGraphic ug) {
+		final StringBounder stringBounder = ug.getStringBounder();
+		double pos = 0;
+		for (TextBlockBackcolored component : components) {
+			final Dimension2D dim = component.calculateDimension(stringBounder);
+			if (vertical) {
+				component.drawU(ug.apply(UTranslate.dy(pos)));
+				pos += dim.getHeight() + GAP;
+			} else {
+				component.drawU(ug.apply(UTranslate.dx(pos)));
+				pos += dim.getWidth() + GAP;
+			}
+		}
+	}
+
+	public Dimension2D calculateDimension(StringBounder stringBounder) {
+		double width = 0;
+		double height = 0;
+		for (TextBlockBackcolored component : components) {
+			final Dimension2D dim = component.calculateDimension(stringBounder);
+			if (vertical) {
+				width = Math.max(width, dim.getWidth());
+				height += dim.getHeight();
+			} else {
+				width += dim.getWidth();
+				height = Math.max(height, dim.getHeight());
+			}
+		}
+		final double gaps = GAP * (components.size() - 1);
+		if (vertical) {
+			return new Dimension2DDouble(width, height + gaps);
+		}
+		return new Dimension2DDouble(width + gaps, height);
+	}
+
+	public HColor getBackcolor() {
+		return components.get(0).getBackcolor();
+	}
+
+}
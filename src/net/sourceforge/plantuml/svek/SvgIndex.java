@@ -0,0 +1,144 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml.svek;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Positions of the titles and of the colors of a SVG generated by Graphviz,
+ * found in a single pass.
+ * <p>
+ * Each color "#rrggbb" is recorded in the syntaxes searched by
+ * {@link SvgResult}, at the index where the searched string starts, so that a
+ * lookup gives the same index as <code>String.indexOf</code> would.
+ */
+class SvgIndex {
+
+	static final int STROKE_EQUALS = 0; // stroke="#rrggbb"
+	static final int SEMICOLON_STROKE = 1; // ;stroke:#rrggbb;
+	static final int FILL_EQUALS = 2; // fill="#rrggbb"
+	static final int ANY_EQUALS = 3; // ="#rrggbb"
+	static final int STROKE = 4; // stroke:#rrggbb;
+
+	private static final String TITLE = "<title>";
+	private static final String END_TITLE = "</title>";
+
+	private final Map<String, Integer> titles = new HashMap<String, Integer>();
+	private final List<Map<String, List<Integer>>> colors = new ArrayList<Map<String, List<Integer>>>();
+
+	SvgIndex(String svg) {
+		for (int i = 0; i < 5; i++) {
+			colors.add(new HashMap<String, List<Integer>>());
+		}
+		final int length = svg.length();
+		for (int i = 0; i < length; i++) {
+			final char c = svg.charAt(i);
+			if (c == '#' && i + 7 < length) {
+				final char after = svg.charAt(i + 7);
+				if (after == '"' && i >= 2 && svg.startsWith("=\"", i - 2)) {
+					final String color = svg.substring(i, i + 7);
+					add(ANY_EQUALS, color, i - 2);
+					if (svg.startsWith("stroke", i - 8)) {
+						add(STROKE_EQUALS, color, i - 8);
+					} else if (svg.startsWith("fill", i - 6)) {
+						add(FILL_EQUALS, color, i - 6);
+					}
+				} else if (after == ';' && svg.startsWith("stroke:", i - 7)) {
+					final String color = svg.substring(i, i + 7);
+					add(STROKE, color, i - 7);
+					if (i >= 8 && svg.charAt(i - 8) == ';') {
+						add(SEMICOLON_STROKE, color, i - 8);
+					}
+				}
+			} else if (c == '<' && svg.startsWith(TITLE, i)) {
+				final int end = svg.indexOf(END_TITLE, i + TITLE.length());
+				if (end != -1) {
+					final String title = svg.substring(i + TITLE.length(), end);
+					if (titles.containsKey(title) == false) {
+						titles.put(title, i);
+					}
+				}
+			}
+		}
+	}
+
+	private void add(int syntax, String color, int position) {
+		List<Integer> positions = colors.get(syntax).get(color);
+		if (positions == null) {
+			positions = new ArrayList<Integer>();
+			colors.get(syntax).put(color, positions);
+		}
+		positions.add(position);
+	}
+
+	/**
+	 * Index of the first <code>&lt;title&gt;title&lt;/title&gt;</code>, or -1.
+	 */
+	int getTitle(String title) {
+		final Integer result = titles.get(title);
+		if (result == null) {
+			return -1;
+		}
+		return result;
+	}
+
+	/**
+	 * Index of the first occurrence of the color at or after start, or -1.
+	 */
+	int getColor(int syntax, String color, int start) {
+		final List<Integer> positions = colors.get(syntax).get(color);
+		if (positions == null) {
+			return -1;
+		}
+		int idx = Collections.binarySearch(positions, start);
+		if (idx < 0) {
+			idx = -idx - 1;
+		}
+		if (idx == positions.size()) {
+			return -1;
+		}
+		return positions.get(idx);
+	}
+
+}
@@ -47,17 +47,34 @@ import java.util.StringTokenizer;
 
 import net.sourceforge.plantuml.StringUtils;
 
-public class SvgResult {
+public class SvgResult implements ColoredPoints {
 
 	public static final String D_EQUALS = "d=\"";
 	public static final String POINTS_EQUALS = "points=\"";
 
+	// A SvgResult returned by substring(int) shares the string and the index of
+	// the full SVG: svg.substring(start) is never copied
 	private final String svg;
+	private final int start;
 	private final Point2DFunction function;
+	private SvgIndex index;
 
 	public SvgResult(String svg, Point2DFunction function) {
+		this(svg, 0, function, null);
+	}
+
+	private SvgResult(String svg, int start, Point2DFunction function, SvgIndex index) {
 		this.svg = svg;
+		this.start = start;
 		this.function = function;
+		this.index = index;
+	}
+
+	private SvgIndex getIndex() {
+		if (index == null) {
+			index = new SvgIndex(svg);
+		}
+		return index;
 	}
 
 	public PointListIterator getPointsWithThisColor(int lineColor) {
@@ -77,18 +94,16 @@ public class SvgResult {
 	}
 
 	public int getIndexFromColor(int color) {
-		String s = "stroke=\"" + StringUtils.goLowerCase(DotStringFactory.sharp000000(color)) + "\"";
-		int idx = svg.indexOf(s);
+		final String colorString = StringUtils.goLowerCase(DotStringFactory.sharp000000(color));
+		int idx = indexOfColor(SvgIndex.STROKE_EQUALS, colorString);
 		if (idx != -1) {
 			return idx;
 		}
-		s = ";stroke:" + StringUtils.goLowerCase(DotStringFactory.sharp000000(color)) + ";";
-		idx = svg.indexOf(s);
+		idx = indexOfColor(SvgIndex.SEMICOLON_STROKE, colorString);
 		if (idx != -1) {
 			return idx;
 		}
-		s = "fill=\"" + StringUtils.goLowerCase(DotStringFactory.sharp000000(color)) + "\"";
-		idx = svg.indexOf(s);
+		idx = indexOfColor(SvgIndex.FILL_EQUALS, colorString);
 		if (idx != -1) {
 			return idx;
 		}
@@ -97,9 +112,39 @@ public class SvgResult {
 
 	}
 
+	public List<Point2D.Double> getPointsFromColor(int color) {
+		final int idx = getIndexFromColor(color);
+		if (idx == -1) {
+			return null;
+		}
+		return substring(idx).extractList(POINTS_EQUALS);
+	}
+
+	/**
+	 * Same as indexOf of the color written in one of the syntaxes of
+	 * {@link SvgIndex}.
+	 */
+	int indexOfColor(int syntax, String colorString) {
+		final int idx = getIndex().getColor(syntax, colorString, start);
+		if (idx == -1) {
+			return -1;
+		}
+		return idx - start;
+	}
+
+	/**
+	 * Same as indexOf("&lt;title&gt;" + title + "&lt;/title&gt;", 0).
+	 */
+	public int indexOfTitle(String title) {
+		if (start > 0) {
+			return indexOf("<title>" + title + "</title>", 0);
+		}
+		return getIndex().getTitle(title);
+	}
+
 	public List<Point2D.Double> getPoints(String separator) {
 		try {
-			final StringTokenizer st = new StringTokenizer(svg, separator);
+			final StringTokenizer st = new StringTokenizer(getSvg(), separator);
 			final List<Point2D.Double> result = new ArrayList<Point2D.Double>();
 			while (st.hasMoreTokens()) {
 				result.add(getFirstPoint(st.nextToken()));
@@ -111,7 +156,7 @@ public class SvgResult {
 	}
 
 	public Point2D.Double getNextPoint() {
-		return getFirstPoint(svg);
+		return getFirstPoint(getSvg());
 	}
 
 	private Point2D.Double getFirstPoint(final String tmp) {
@@ -122,18 +167,35 @@ public class SvgResult {
 	}
 
 	public int indexOf(String s, int pos) {
-		return svg.indexOf(s, pos);
+		final int idx = svg.indexOf(s, start + Math.max(pos, 0));
+		if (idx == -1) {
+			return -1;
+		}
+		return idx - start;
+	}
+
+	private int length() {
+		return svg.length() - start;
 	}
 
 	public SvgResult substring(int pos) {
-		return new SvgResult(svg.substring(pos), function);
+		if (pos < 0 || pos > length()) {
+			throw new StringIndexOutOfBoundsException(pos);
+		}
+		return new SvgResult(svg, start + pos, function, getIndex());
 	}
 
-	public SvgResult substring(int start, int end) {
-		return new SvgResult(svg.substring(start, end), function);
+	public SvgResult substring(int begin, int end) {
+		if (begin < 0 || end > length() || begin > end) {
+			throw new StringIndexOutOfBoundsException("begin " + begin + ", end " + end + ", length " + length());
+		}
+		return new SvgResult(svg.substring(start + begin, start + end), function);
 	}
 
 	public final String getSvg() {
-		return svg;
+		if (start == 0) {
+			return svg;
+		}
+		return svg.substring(start);
 	}
 }
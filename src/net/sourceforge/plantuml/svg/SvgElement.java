@@ -0,0 +1,204 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml.svg;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Element of the SVG output, written the way the JDK identity Transformer
+ * writes a DOM element: namespace declarations first, then the other
+ * attributes sorted by name, and the same escaping.
+ * 
+ * Children are serialized as soon as they are appended: only elements still
+ * open (the root, defs, groups and links) are kept in memory.
+ */
+final class SvgElement {
+
+	// Written instead of an unpaired surrogate, which is not a valid XML character
+	private static final char REPLACEMENT_CHARACTER = '\uFFFD';
+
+	private final String name;
+	private final Map<String, String> attributes = new TreeMap<String, String>();
+	private final StringBuilder content = new StringBuilder();
+
+	SvgElement(String name) {
+		this.name = name;
+	}
+
+	void setAttribute(String attributeName, String value) {
+		attributes.put(attributeName, value);
+	}
+
+	void appendChild(SvgElement child) {
+		child.appendTo(content);
+	}
+
+	boolean hasChildren() {
+		return content.length() > 0;
+	}
+
+	void setTextContent(String text) {
+		content.setLength(0);
+		appendEscaped(content, text, false);
+	}
+
+	void appendComment(String comment) {
+		content.append("<!--");
+		char previous = 0;
+		for (int i = 0; i < comment.length(); i++) {
+			final char c = comment.charAt(i);
+			if (c == '-' && previous == '-') {
+				content.append(' ');
+			}
+			content.append(c);
+			previous = c;
+		}
+		if (previous == '-') {
+			content.append(' ');
+		}
+		content.append("-->");
+	}
+
+	void appendCData(String data) {
+		content.append("<![CDATA[").append(data.replace("]]>", "]]]]><![CDATA[>")).append("]]>");
+	}
+
+	/**
+	 * Appends some SVG that is already serialized.
+	 */
+	void appendRaw(String svg) {
+		content.append(svg);
+	}
+
+	private void appendTo(StringBuilder sb) {
+		appendStartTag(sb);
+		if (content.length() > 0) {
+			sb.append(content);
+			sb.append("</").append(name).append('>');
+		}
+	}
+
+	void writeTo(Writer writer) throws IOException {
+		final StringBuilder start = new StringBuilder();
+		appendStartTag(start);
+		writer.write(start.toString());
+		if (content.length() > 0) {
+			writer.append(content);
+			writer.write("</" + name + ">");
+		}
+	}
+
+	/**
+	 * Replaces a placeholder written in the content.
+	 */
+	void replaceInContent(String placeholder, String value) {
+		int idx;
+		while ((idx = content.indexOf(placeholder)) != -1) {
+			content.replace(idx, idx + placeholder.length(), value);
+		}
+	}
+
+	private void appendStartTag(StringBuilder sb) {
+		sb.append('<').append(name);
+		for (Map.Entry<String, String> ent : attributes.entrySet()) {
+			if (ent.getKey().startsWith("xmlns")) {
+				appendAttribute(sb, ent);
+			}
+		}
+		for (Map.Entry<String, String> ent : attributes.entrySet()) {
+			if (ent.getKey().startsWith("xmlns") == false) {
+				appendAttribute(sb, ent);
+			}
+		}
+		if (content.length() > 0) {
+			sb.append('>');
+		} else {
+			sb.append("/>");
+		}
+	}
+
+	private static void appendAttribute(StringBuilder sb, Map.Entry<String, String> ent) {
+		sb.append(' ').append(ent.getKey()).append("=\"");
+		appendEscaped(sb, ent.getValue(), true);
+		sb.append('"');
+	}
+
+	static void appendEscaped(StringBuilder sb, String s, boolean attribute) {
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+			if (c == '&') {
+				sb.append("&amp;");
+			} else if (c == '<') {
+				sb.append("&lt;");
+			} else if (c == '>') {
+				sb.append("&gt;");
+			} else if (c == '"' && attribute) {
+				sb.append("&quot;");
+			} else if (c < ' ') {
+				if (attribute == false && (c == '\t' || c == '\n')) {
+					sb.append(c);
+				} else {
+					appendCharRef(sb, c);
+				}
+			} else if (c >= 0x7F && c <= 0x9F && attribute == false) {
+				appendCharRef(sb, c);
+			} else if (Character.isHighSurrogate(c)) {
+				if (i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+					appendCharRef(sb, Character.toCodePoint(c, s.charAt(i + 1)));
+					i++;
+				} else {
+					sb.append(REPLACEMENT_CHARACTER);
+				}
+			} else if (Character.isLowSurrogate(c)) {
+				sb.append(REPLACEMENT_CHARACTER);
+			} else {
+				sb.append(c);
+			}
+		}
+	}
+
+	private static void appendCharRef(StringBuilder sb, int codePoint) {
+		sb.append("&#").append(codePoint).append(';');
+	}
+
+}
@@ -41,9 +41,12 @@ package net.sourceforge.plantuml.svg;
 
 import java.awt.geom.Dimension2D;
 import java.awt.image.BufferedImage;
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -52,21 +55,6 @@ import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-
-import org.w3c.dom.CDATASection;
-import org.w3c.dom.Comment;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-
 import net.sourceforge.plantuml.Log;
 import net.sourceforge.plantuml.SignatureUtils;
 import net.sourceforge.plantuml.SvgString;
@@ -100,10 +88,8 @@ public class SvgGraphics {
 	private static final String XLINK_HREF1 = "href";
 	private static final String XLINK_HREF2 = "xlink:href";
 
-	final private Document document;
-	final private Element root;
-	final private Element defs;
-	final private Element gRoot;
+	final private SvgElement defs;
+	final private SvgElement gRoot;
 
 	private String fill = "black";
 	private String stroke = "black";
@@ -138,38 +124,28 @@ public class SvgGraphics {
 
 	public SvgGraphics(boolean svgDimensionStyle, Dimension2D minDim, String backcolor, double scale, String hover,
 			long seed, String preserveAspectRatio) {
-		try {
-			this.svgDimensionStyle = svgDimensionStyle;
-			this.scale = scale;
-			this.document = getDocument();
-			this.backcolor = backcolor;
-			this.preserveAspectRatio = preserveAspectRatio;
-			ensureVisible(minDim.getWidth(), minDim.getHeight());
-
-			this.root = getRootNode();
-
-			// Create a node named defs, which will be the parent
-			// for a pair of linear gradient definitions.
-			defs = simpleElement("defs");
-			gRoot = simpleElement("g");
-			strokeWidth = "" + scale;
-			this.filterUid = "b" + getSeed(seed);
-			this.shadowId = "f" + getSeed(seed);
-			this.gradientId = "g" + getSeed(seed);
-			if (hover != null) {
-				defs.appendChild(getPathHover(hover));
-			}
-		} catch (ParserConfigurationException e) {
-			e.printStackTrace();
-			throw new IllegalStateException(e);
-		}
-	}
-
-	private Element getPathHover(String hover) {
-		final Element style = simpleElement("style");
-		final CDATASection cdata = document.createCDATASection("path:hover { stroke: " + hover + " !important;}");
+		this.svgDimensionStyle = svgDimensionStyle;
+		this.scale = scale;
+		this.backcolor = backcolor;
+		this.preserveAspectRatio = preserveAspectRatio;
+		ensureVisible(minDim.getWidth(), minDim.getHeight());
+
+		// The defs element is the parent of gradients and filters definitions.
+		defs = new SvgElement("defs");
+		gRoot = new SvgElement("g");
+		strokeWidth = "" + scale;
+		this.filterUid = "b" + getSeed(seed);
+		this.shadowId = "f" + getSeed(seed);
+		this.gradientId = "g" + getSeed(seed);
+		if (hover != null) {
+			defs.appendChild(getPathHover(hover));
+		}
+	}
+
+	private SvgElement getPathHover(String hover) {
+		final SvgElement style = new SvgElement("style");
 		style.setAttribute("type", "text/css");
-		style.appendChild(cdata);
+		style.appendCData("path:hover { stroke: " + hover + " !important;}");
 		return style;
 	}
 
@@ -177,58 +153,36 @@ public class SvgGraphics {
 		return Long.toString(Math.abs(seed), 36);
 	}
 
-	private Element pendingBackground;
+	// The background rectangle is written before the final size is known: its
+	// width and height are placeholders replaced in createXml()
+	private static final String PENDING = "\uFFFFpendingBackground";
+
+	private int pendingBackground;
 
 	public void paintBackcolorGradient(ColorMapper mapper, HColorGradient gr) {
 		final String id = createSvgGradient(mapper.toRGB(gr.getColor1()), mapper.toRGB(gr.getColor2()),
 				gr.getPolicy());
 		setFillColor("url(#" + id + ")");
 		setStrokeColor(null);
-		pendingBackground = createRectangleInternal(0, 0, 0, 0);
-		getG().appendChild(pendingBackground);
-	}
-
-	// This method returns a reference to a simple XML
-	// element node that has no attributes.
-	private Element simpleElement(String type) {
-		final Element theElement = (Element) document.createElement(type);
-		root.appendChild(theElement);
-		return theElement;
+		pendingBackground++;
+		final SvgElement elt = createRectangleInternal(0, 0, 0, 0);
+		elt.setAttribute("width", PENDING + pendingBackground + "w");
+		elt.setAttribute("height", PENDING + pendingBackground + "h");
+		getG().appendChild(elt);
 	}
 
-	private Document getDocument() throws ParserConfigurationException {
-		final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-
-		final DocumentBuilder builder = factory.newDocumentBuilder();
-		final Document document = builder.newDocument();
-		document.setXmlStandalone(true);
-		return document;
-	}
-
-	// This method returns a reference to a root node that
-	// has already been appended to the document.
-	private Element getRootNode() {
-		// Create the root node named svg and append it to
-		// the document.
-		final Element svg = (Element) document.createElement("svg");
-		document.appendChild(svg);
-
-		// Set some attributes on the root node that are
-		// required for proper rendering. Note that the
-		// approach used here is somewhat different from the
-		// approach used in the earlier program named Svg01,
-		// particularly with regard to the style.
+	private SvgElement getRootNode() {
+		final SvgElement svg = new SvgElement("svg");
 		svg.setAttribute("xmlns", "http://www.w3.org/2000/svg");
 		svg.setAttribute("xmlns:xlink", "http://www.w3.org/1999/xlink");
 		svg.setAttribute("version", "1.1");
-
 		return svg;
 	}
 
 	public void svgEllipse(double x, double y, double xRadius, double yRadius, double deltaShadow) {
 		manageShadow(deltaShadow);
 		if (hidden == false) {
-			final Element elt = (Element) document.createElement("ellipse");
+			final SvgElement elt = new SvgElement("ellipse");
 			elt.setAttribute("cx", format(x));
 			elt.setAttribute("cy", format(y));
 			elt.setAttribute("rx", format(xRadius));
@@ -245,7 +199,7 @@ public class SvgGraphics {
 		if (hidden == false) {
 			final String path = "M" + format(x1) + "," + format(y1) + " A" + format(rx) + "," + format(ry) + " 0 0 0 "
 					+ format(x2) + " " + format(y2);
-			final Element elt = (Element) document.createElement("path");
+			final SvgElement elt = new SvgElement("path");
 			elt.setAttribute("d", path);
 			elt.setAttribute("fill", fill);
 			elt.setAttribute("style", getStyle());
@@ -261,7 +215,7 @@ public class SvgGraphics {
 		final List<Object> key = Arrays.asList((Object) color1, color2, policy);
 		String id = gradients.get(key);
 		if (id == null) {
-			final Element elt = (Element) document.createElement("linearGradient");
+			final SvgElement elt = new SvgElement("linearGradient");
 			if (policy == '|') {
 				elt.setAttribute("x1", "0%");
 				elt.setAttribute("y1", "50%");
@@ -287,10 +241,10 @@ public class SvgGraphics {
 			gradients.put(key, id);
 			elt.setAttribute("id", id);
 
-			final Element stop1 = (Element) document.createElement("stop");
+			final SvgElement stop1 = new SvgElement("stop");
 			stop1.setAttribute("stop-color", color1);
 			stop1.setAttribute("offset", "0%");
-			final Element stop2 = (Element) document.createElement("stop");
+			final SvgElement stop2 = new SvgElement("stop");
 			stop2.setAttribute("stop-color", color2);
 			stop2.setAttribute("offset", "100%");
 
@@ -314,9 +268,9 @@ public class SvgGraphics {
 		this.strokeDasharray = strokeDasharray;
 	}
 
-	private final List<Element> pendingAction = new ArrayList<Element>();
+	private final List<SvgElement> pendingAction = new ArrayList<SvgElement>();
 
-	public final Element getG() {
+	final SvgElement getG() {
 		if (pendingAction.size() == 0) {
 			return gRoot;
 		}
@@ -332,7 +286,7 @@ public class SvgGraphics {
 		}
 		manageShadow(deltaShadow);
 		if (hidden == false) {
-			final Element elt = createRectangleInternal(x, y, width, height);
+			final SvgElement elt = createRectangleInternal(x, y, width, height);
 			addFilterShadowId(elt, deltaShadow);
 			if (rx > 0 && ry > 0) {
 				elt.setAttribute("rx", format(rx));
@@ -346,8 +300,8 @@ public class SvgGraphics {
 		ensureVisible(x + width + 2 * deltaShadow, y + height + 2 * deltaShadow);
 	}
 
-	private Element createRectangleInternal(double x, double y, double width, double height) {
-		final Element elt = (Element) document.createElement("rect");
+	private SvgElement createRectangleInternal(double x, double y, double width, double height) {
+		final SvgElement elt = new SvgElement("rect");
 		elt.setAttribute("x", format(x));
 		elt.setAttribute("y", format(y));
 		elt.setAttribute("width", format(width));
@@ -360,7 +314,7 @@ public class SvgGraphics {
 	public void svgLine(double x1, double y1, double x2, double y2, double deltaShadow) {
 		manageShadow(deltaShadow);
 		if (hidden == false) {
-			final Element elt = (Element) document.createElement("line");
+			final SvgElement elt = new SvgElement("line");
 			elt.setAttribute("x1", format(x1));
 			elt.setAttribute("y1", format(y1));
 			elt.setAttribute("x2", format(x2));
@@ -389,7 +343,7 @@ public class SvgGraphics {
 		assert points.length % 2 == 0;
 		manageShadow(deltaShadow);
 		if (hidden == false) {
-			final Element elt = (Element) document.createElement("polygon");
+			final SvgElement elt = new SvgElement("polygon");
 			final StringBuilder sb = new StringBuilder();
 			for (double coord : points) {
 				if (sb.length() > 0) {
@@ -414,7 +368,7 @@ public class SvgGraphics {
 			String fontStyle, String textDecoration, double textLength, Map<String, String> attributes,
 			String textBackColor) {
 		if (hidden == false) {
-			final Element elt = (Element) document.createElement("text");
+			final SvgElement elt = new SvgElement("text");
 			// required for web-kit based browsers
 			// elt.setAttribute("text-rendering", "geometricPrecision");
 			elt.setAttribute("x", format(x));
@@ -488,7 +442,7 @@ public class SvgGraphics {
 			return id;
 		}
 		id = getIdFilterBackColor(color);
-		final Element filter = (Element) document.createElement("filter");
+		final SvgElement filter = new SvgElement("filter");
 		filter.setAttribute("id", id);
 		filter.setAttribute("x", "0");
 		filter.setAttribute("y", "0");
@@ -500,56 +454,8 @@ public class SvgGraphics {
 		return id;
 	}
 
-	private Transformer getTransformer() throws TransformerException {
-		// Get a TransformerFactory object.
-		TransformerFactory xformFactory = null;
-//		try {
-//			final Class<?> factoryClass = Class
-//					.forName("com.sun.org.apache.xalan.internal.xsltc.trax.TransformerFactoryImpl");
-//			xformFactory = (TransformerFactory) factoryClass.newInstance();
-//		} catch (Exception e) {
-		xformFactory = TransformerFactory.newInstance();
-//		}
-		Log.info("TransformerFactory=" + xformFactory.getClass());
-
-		// Get an XSL Transformer object.
-		final Transformer transformer = xformFactory.newTransformer();
-		Log.info("Transformer=" + transformer.getClass());
-
-		// // Sets the standalone property in the first line of
-		// // the output file.
-		transformer.setOutputProperty(OutputKeys.STANDALONE, "no");
-		// transformer.setOutputProperty(OutputKeys.DOCTYPE_PUBLIC, "SVG 1.1");
-		// transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no");
-
-		return transformer;
-	}
-
-	public void createXml(OutputStream os) throws TransformerException, IOException {
-		if (images.size() == 0) {
-			createXmlInternal(os);
-			return;
-		}
-		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		createXmlInternal(baos);
-		String s = new String(baos.toByteArray());
-		for (Map.Entry<String, String> ent : images.entrySet()) {
-			final String k = "<" + ent.getKey() + "/>";
-			s = s.replace(k, ent.getValue());
-		}
-		os.write(s.getBytes());
-	}
-
-	private void createXmlInternal(OutputStream os) throws TransformerException {
-		// // Add lines
-		// for (Line l : lines) {
-		// l.drawNow();
-		// }
-
-		// Get a DOMSource object that represents the
-		// Document object
-		final DOMSource source = new DOMSource(document);
-
+	public void createXml(OutputStream os) throws IOException {
+		final SvgElement root = getRootNode();
 		final int maxXscaled = (int) (maxX * scale);
 		final int maxYscaled = (int) (maxY * scale);
 		String style = "width:" + maxXscaled + "px;height:" + maxYscaled + "px;";
@@ -567,17 +473,21 @@ public class SvgGraphics {
 		root.setAttribute("contentScriptType", "application/ecmascript");
 		root.setAttribute("contentStyleType", "text/css");
 
-		if (pendingBackground != null) {
-			pendingBackground.setAttribute("width", format(maxX));
-			pendingBackground.setAttribute("height", format(maxY));
-
+		// Only the last background rectangle gets the final size
+		for (int i = 1; i <= pendingBackground; i++) {
+			final boolean last = i == pendingBackground;
+			gRoot.replaceInContent(PENDING + i + "w", last ? format(maxX) : format(0));
+			gRoot.replaceInContent(PENDING + i + "h", last ? format(maxY) : format(0));
 		}
+		pendingBackground = 0;
 
-		// Get a StreamResult object that points to the
-		// screen. Then transform the DOM sending XML to
-		// the screen.
-		final StreamResult scrResult = new StreamResult(os);
-		getTransformer().transform(source, scrResult);
+		root.appendChild(defs);
+		root.appendChild(gRoot);
+
+		final Writer writer = new BufferedWriter(new OutputStreamWriter(os, "UTF-8"));
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>");
+		root.writeTo(writer);
+		writer.flush();
 	}
 
 	public void svgPath(double x, double y, UPath path, double deltaShadow) {
@@ -618,7 +528,7 @@ public class SvgGraphics {
 
 		}
 		if (hidden == false) {
-			final Element elt = (Element) document.createElement("path");
+			final SvgElement elt = new SvgElement("path");
 			elt.setAttribute("d", sb.toString());
 			elt.setAttribute("style", getStyle());
 			elt.setAttribute("fill", fill);
@@ -631,7 +541,7 @@ public class SvgGraphics {
 		}
 	}
 
-	private void addFilterShadowId(final Element elt, double deltaShadow) {
+	private void addFilterShadowId(final SvgElement elt, double deltaShadow) {
 		if (deltaShadow > 0) {
 			elt.setAttribute("filter", "url(#" + shadowId + ")");
 		}
@@ -684,7 +594,7 @@ public class SvgGraphics {
 
 	public void fill(int windingRule) {
 		if (hidden == false) {
-			final Element elt = (Element) document.createElement("path");
+			final SvgElement elt = new SvgElement("path");
 			elt.setAttribute("d", currentPath.toString());
 			// elt elt.setAttribute("style", getStyle());
 			getG().appendChild(elt);
@@ -695,7 +605,7 @@ public class SvgGraphics {
 
 	public void svgImage(BufferedImage image, double x, double y) throws IOException {
 		if (hidden == false) {
-			final Element elt = (Element) document.createElement("image");
+			final SvgElement elt = new SvgElement("image");
 			elt.setAttribute("width", format(image.getWidth()));
 			elt.setAttribute("height", format(image.getHeight()));
 			elt.setAttribute("x", format(x));
@@ -708,17 +618,12 @@ public class SvgGraphics {
 		ensureVisible(x + image.getWidth(), y + image.getHeight());
 	}
 
-	private final Map<String, String> images = new HashMap<String, String>();
-
 	public void svgImage(SvgString image, double x, double y) {
 		if (hidden == false) {
 			String svg = manageScale(image);
 			final String pos = "<svg x=\"" + format(x) + "\" y=\"" + format(y) + "\">";
 			svg = pos + svg.substring(5);
-			final String key = "imagesvginlined" + image.getMD5Hex() + images.size();
-			final Element elt = (Element) document.createElement(key);
-			getG().appendChild(elt);
-			images.put(key, svg);
+			getG().appendRaw(svg);
 		}
 		ensureVisible(x, y);
 		ensureVisible(x + image.getData("width"), y + image.getData("height"));
@@ -749,7 +654,7 @@ public class SvgGraphics {
 		if (deltaShadow != 0) {
 			if (withShadow == false) {
 				// <filter id="f1" x="0" y="0" width="120%" height="120%">
-				final Element filter = (Element) document.createElement("filter");
+				final SvgElement filter = new SvgElement("filter");
 				filter.setAttribute("id", shadowId);
 				filter.setAttribute("x", "-1");
 				filter.setAttribute("y", "-1");
@@ -768,9 +673,9 @@ public class SvgGraphics {
 		}
 	}
 
-	private void addFilter(Element filter, String name, String... data) {
+	private void addFilter(SvgElement filter, String name, String... data) {
 		assert data.length % 2 == 0;
-		final Element elt = (Element) document.createElement(name);
+		final SvgElement elt = new SvgElement(name);
 		for (int i = 0; i < data.length; i += 2) {
 			elt.setAttribute(data[i], data[i + 1]);
 		}
@@ -792,8 +697,7 @@ public class SvgGraphics {
 	public void addComment(String comment) {
 		final String signature = getMD5Hex(comment);
 		comment = "MD5=[" + signature + "]\n" + comment;
-		final Comment commentElement = document.createComment(comment);
-		getG().appendChild(commentElement);
+		getG().appendComment(comment);
 	}
 
 	public void openLink(String url, String title, String target) {
@@ -809,7 +713,7 @@ public class SvgGraphics {
 //			closeLink();
 //		}
 
-		pendingAction.add(0, (Element) document.createElement("a"));
+		pendingAction.add(0, new SvgElement("a"));
 		pendingAction.get(0).setAttribute("target", target);
 		pendingAction.get(0).setAttribute(XLINK_HREF1, url);
 		pendingAction.get(0).setAttribute(XLINK_HREF2, url);
@@ -843,9 +747,9 @@ public class SvgGraphics {
 
 	public void closeLink() {
 		if (pendingAction.size() > 0) {
-			final Element element = pendingAction.get(0);
+			final SvgElement element = pendingAction.get(0);
 			pendingAction.remove(0);
-			if (element.getFirstChild() != null) {
+			if (element.hasChildren()) {
 				// Empty link
 				getG().appendChild(element);
 			}
@@ -853,7 +757,7 @@ public class SvgGraphics {
 	}
 
 	public void startGroup(String groupId) {
-		pendingAction.add(0, (Element) document.createElement("g"));
+		pendingAction.add(0, new SvgElement("g"));
 		pendingAction.get(0).setAttribute("id", groupId);
 	}
 
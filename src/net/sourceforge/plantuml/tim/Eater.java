@@ -46,6 +46,7 @@ import net.sourceforge.plantuml.LineLocation;
 import net.sourceforge.plantuml.StringLocated;
 import net.sourceforge.plantuml.json.Json;
 import net.sourceforge.plantuml.json.JsonValue;
+import net.sourceforge.plantuml.tim.expression.CompiledExpression;
 import net.sourceforge.plantuml.tim.expression.TValue;
 import net.sourceforge.plantuml.tim.expression.Token;
 import net.sourceforge.plantuml.tim.expression.TokenStack;
@@ -91,8 +92,21 @@ public abstract class Eater {
 			// System.err.println("json=" + json);
 			return TValue.fromJson(json);
 		}
-		final TokenStack tokenStack = eatTokenStack();
-		return tokenStack.getResult(getLineLocation(), context, memory);
+		return eatCompiledExpression(context).getResult(getLineLocation(), context, memory);
+	}
+
+	final protected CompiledExpression eatCompiledExpression(TContext context)
+			throws EaterException, EaterExceptionLocated {
+		final String source = s.substring(i);
+		CompiledExpression result = context.getCompiledExpression(source);
+		if (result == null) {
+			result = CompiledExpression.compile(eatTokenStack());
+			context.putCompiledExpression(source, result);
+		} else {
+			// An expression always runs up to the end of the line
+			i = s.length();
+		}
+		return result;
 	}
 
 	final protected TokenStack eatTokenStack() throws EaterException {
@@ -40,25 +40,25 @@
 package net.sourceforge.plantuml.tim;
 
 import net.sourceforge.plantuml.StringLocated;
-import net.sourceforge.plantuml.tim.expression.TokenStack;
+import net.sourceforge.plantuml.tim.expression.CompiledExpression;
 
 public class EaterWhile extends Eater {
 
-	private TokenStack expression;
+	private CompiledExpression expression;
 
 	public EaterWhile(StringLocated s) {
 		super(s);
 	}
 
 	@Override
-	public void analyze(TContext context, TMemory memory) throws EaterException {
+	public void analyze(TContext context, TMemory memory) throws EaterException, EaterExceptionLocated {
 		skipSpaces();
 		checkAndEatChar("!while");
 		skipSpaces();
-		this.expression = eatTokenStack();
+		this.expression = eatCompiledExpression(context);
 	}
 
-	public final TokenStack getWhileExpression() {
+	public final CompiledExpression getWhileExpression() {
 		return expression;
 	}
 }
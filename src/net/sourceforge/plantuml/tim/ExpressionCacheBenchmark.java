@@ -0,0 +1,113 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml.tim;
+
+import net.sourceforge.plantuml.LineLocationImpl;
+import net.sourceforge.plantuml.StringLocated;
+import net.sourceforge.plantuml.preproc.Defines;
+import net.sourceforge.plantuml.preproc.ImportedFiles;
+import net.sourceforge.plantuml.tim.expression.CompiledExpression;
+import net.sourceforge.plantuml.tim.expression.TValue;
+
+/**
+ * Evaluates preprocessor expressions, either compiled again each time (cache
+ * miss) or found in the compiled expression cache of the TContext (cache hit),
+ * and prints the throughput.
+ * 
+ * Usage: <code>ExpressionCacheBenchmark [nbEvaluations]</code>
+ */
+public class ExpressionCacheBenchmark {
+
+	private static final String EXPRESSIONS[] = { "$a + 1", "$a * 2 + $b - 3", "($a + $b) * ($a - $b) / 2",
+			"%strlen(\"participant\") + $a", "$a > $b && $b > 0 || $a == 0", "%upper($name) + \"_\" + $a",
+			"%intval(\"42\") * $b % 7", "%substr($name, 1, 3) + %string($a * $b)" };
+
+	public static void main(String[] args) throws Exception {
+		final int nbEvaluations = args.length > 0 ? Integer.parseInt(args[0]) : 500000;
+		final TContext context = new TContext(ImportedFiles.createImportedFiles(null), Defines.createEmpty(),
+				"UTF-8", null);
+		final TMemory memory = new TMemoryGlobal();
+		memory.putVariable("$a", TValue.fromInt(12), TVariableScope.GLOBAL);
+		memory.putVariable("$b", TValue.fromInt(5), TVariableScope.GLOBAL);
+		memory.putVariable("$name", TValue.fromString("Alice"), TVariableScope.GLOBAL);
+		// Warm up
+		run(context, memory, nbEvaluations, false);
+		run(context, memory, nbEvaluations, true);
+		for (int i = 0; i < 3; i++) {
+			final double miss = run(context, memory, nbEvaluations, false);
+			final double hit = run(context, memory, nbEvaluations, true);
+			System.out.println(String.format("miss=%10.0f/s hit=%10.0f/s ratio=%5.2f", miss, hit, hit / miss));
+		}
+	}
+
+	private static double run(TContext context, TMemory memory, int nbEvaluations, boolean cached)
+			throws EaterException, EaterExceptionLocated {
+		int sum = 0;
+		final long start = System.nanoTime();
+		for (int i = 0; i < nbEvaluations; i++) {
+			final Expression expression = new Expression(EXPRESSIONS[i % EXPRESSIONS.length]);
+			final TValue value = cached ? expression.eatExpression(context, memory) : expression.compile()
+					.getResult(expression.getLineLocation(), context, memory);
+			sum += value.toString().length();
+		}
+		final long duration = System.nanoTime() - start;
+		if (sum == 0) {
+			throw new IllegalStateException();
+		}
+		return 1.0E9 * nbEvaluations / duration;
+	}
+
+	static class Expression extends Eater {
+
+		Expression(String s) {
+			super(new StringLocated(s, new LineLocationImpl("benchmark", null)));
+		}
+
+		@Override
+		public void analyze(TContext context, TMemory memory) {
+		}
+
+		CompiledExpression compile() throws EaterException, EaterExceptionLocated {
+			return CompiledExpression.compile(eatTokenStack());
+		}
+
+	}
+
+}
@@ -0,0 +1,228 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml.tim;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import net.sourceforge.plantuml.LineLocation;
+import net.sourceforge.plantuml.LineLocationImpl;
+import net.sourceforge.plantuml.Log;
+import net.sourceforge.plantuml.LruCache;
+import net.sourceforge.plantuml.StringLocated;
+import net.sourceforge.plantuml.preproc.FileWithSuffix;
+import net.sourceforge.plantuml.preproc.ReadLine;
+import net.sourceforge.plantuml.preproc.ReadLineReader;
+import net.sourceforge.plantuml.preproc.StartDiagramExtractReader;
+import net.sourceforge.plantuml.security.SFile;
+
+/**
+ * Lines of the files used by <code>!include</code>, already split and typed.
+ * <p>
+ * The cache is shared by all diagrams of the JVM, so that a theme included by
+ * thousands of diagrams is read and analyzed only once. An entry is identified
+ * by the absolute path of the file, the suffix and the charset. It is reused as
+ * long as the file keeps the same modification date and size, or the same
+ * content. Least recently used entries are evicted when the total length of the
+ * cached lines goes above a limit.
+ * <p>
+ * The included lines are still executed for each diagram, as their effect
+ * depends on the variables and functions defined when they are included.
+ */
+final class IncludeCache {
+
+	private static final int MAX_CHARS = 8 * 1024 * 1024;
+
+	private static final IncludeCache singleton = new IncludeCache();
+
+	private final LruCache<String, CachedLines> entries = new LruCache<String, CachedLines>(MAX_CHARS) {
+		@Override
+		protected long sizeOf(CachedLines value) {
+			return value.nbChars;
+		}
+	};
+
+	static class CachedLines {
+
+		private final long lastModified;
+		private final long length;
+		private final byte[] hash;
+		// True when the lines come from a @startuml/@enduml block, whose locations
+		// do not depend on the !include line
+		private final boolean extracted;
+		private final List<StringLocated> lines;
+		private final long nbChars;
+
+		private CachedLines(long lastModified, long length, byte[] hash, boolean extracted, List<StringLocated> lines) {
+			this.lastModified = lastModified;
+			this.length = length;
+			this.hash = hash;
+			this.extracted = extracted;
+			this.lines = lines;
+			long nb = 0;
+			for (StringLocated line : lines) {
+				nb += line.getString().length();
+			}
+			this.nbChars = nb;
+		}
+
+		private CachedLines withDate(long lastModified) {
+			return new CachedLines(lastModified, length, hash, extracted, lines);
+		}
+
+		private List<StringLocated> getLines(String location, LineLocation parent) {
+			if (extracted) {
+				return new ArrayList<StringLocated>(lines);
+			}
+			final List<StringLocated> result = new ArrayList<StringLocated>(lines.size());
+			LineLocationImpl current = new LineLocationImpl(location, parent);
+			for (StringLocated line : lines) {
+				current = current.oneLineRead();
+				result.add(line.withLocation(current));
+			}
+			return result;
+		}
+
+	}
+
+	private IncludeCache() {
+	}
+
+	static IncludeCache getInstance() {
+		return singleton;
+	}
+
+	/**
+	 * Lines to be executed for an <code>!include</code> of a file, or
+	 * <code>null</code> if the file cannot be read.
+	 */
+	List<StringLocated> getLines(FileWithSuffix f2, StringLocated s, String location, String charset)
+			throws IOException {
+		final SFile file = f2.getUnderlyingFile();
+		if (file == null) {
+			return readLines(f2, s, location, charset);
+		}
+		final String key = file.getAbsolutePath() + "!" + f2.getSuffix() + "!" + charset;
+		final long lastModified = file.lastModified();
+		final long length = file.length();
+		CachedLines entry = entries.get(key);
+		if (entry != null && entry.lastModified == lastModified && entry.length == length) {
+			return entry.getLines(location, s.getLocation());
+		}
+		final byte[] hash = getHash(file);
+		if (hash == null) {
+			return readLines(f2, s, location, charset);
+		}
+		if (entry != null && entry.length == length && Arrays.equals(entry.hash, hash)) {
+			entries.put(key, entry.withDate(lastModified));
+			return entry.getLines(location, s.getLocation());
+		}
+		Log.info("Analyzing " + file);
+		final boolean extracted = StartDiagramExtractReader.containsStartDiagram(f2, s, charset);
+		final List<StringLocated> lines = readLines(f2, s, location, charset, extracted);
+		if (lines == null) {
+			return null;
+		}
+		for (StringLocated line : lines) {
+			line.getType();
+		}
+		entry = new CachedLines(lastModified, length, hash, extracted, Collections.unmodifiableList(lines));
+		entries.put(key, entry);
+		return entry.getLines(location, s.getLocation());
+	}
+
+	private static List<StringLocated> readLines(FileWithSuffix f2, StringLocated s, String location, String charset)
+			throws IOException {
+		final boolean extracted = StartDiagramExtractReader.containsStartDiagram(f2, s, charset);
+		return readLines(f2, s, location, charset, extracted);
+	}
+
+	private static List<StringLocated> readLines(FileWithSuffix f2, StringLocated s, String location, String charset,
+			boolean extracted) throws IOException {
+		final ReadLine reader;
+		if (extracted) {
+			reader = StartDiagramExtractReader.build(f2, s, charset);
+		} else {
+			final Reader tmp = f2.getReader(charset);
+			if (tmp == null) {
+				return null;
+			}
+			reader = ReadLineReader.create(tmp, location, s.getLocation());
+		}
+		try {
+			final List<StringLocated> result = new ArrayList<StringLocated>();
+			StringLocated line;
+			while ((line = reader.readLine()) != null) {
+				result.add(line);
+			}
+			return result;
+		} finally {
+			reader.close();
+		}
+	}
+
+	private static byte[] getHash(SFile file) throws IOException {
+		final InputStream is = file.openFile();
+		if (is == null) {
+			return null;
+		}
+		try {
+			final MessageDigest msgDigest = MessageDigest.getInstance("MD5");
+			final byte[] buffer = new byte[8192];
+			int read;
+			while ((read = is.read(buffer)) != -1) {
+				msgDigest.update(buffer, 0, read);
+			}
+			return msgDigest.digest();
+		} catch (NoSuchAlgorithmException e) {
+			throw new UnsupportedOperationException(e);
+		} finally {
+			is.close();
+		}
+	}
+
+}
@@ -63,13 +63,13 @@ import net.sourceforge.plantuml.preproc.ImportedFiles;
 import net.sourceforge.plantuml.preproc.ReadLine;
 import net.sourceforge.plantuml.preproc.ReadLineList;
 import net.sourceforge.plantuml.preproc.ReadLineReader;
-import net.sourceforge.plantuml.preproc.StartDiagramExtractReader;
 import net.sourceforge.plantuml.preproc.Sub;
 import net.sourceforge.plantuml.preproc.UncommentReadLine;
 import net.sourceforge.plantuml.preproc2.PreprocessorIncludeStrategy;
 import net.sourceforge.plantuml.preproc2.PreprocessorUtils;
 import net.sourceforge.plantuml.security.SFile;
 import net.sourceforge.plantuml.security.SURL;
+import net.sourceforge.plantuml.tim.expression.CompiledExpression;
 import net.sourceforge.plantuml.tim.expression.Knowledge;
 import net.sourceforge.plantuml.tim.expression.TValue;
 import net.sourceforge.plantuml.tim.iterator.CodeIterator;
@@ -120,6 +120,7 @@ public class TContext {
 	private final String charset;
 
 	private final Map<String, Sub> subs = new HashMap<String, Sub>();
+	private final Map<String, CompiledExpression> compiledExpressions = new HashMap<String, CompiledExpression>();
 	private final DefinitionsContainer definitionsContainer;
 
 	// private final Set<FileWithSuffix> usedFiles = new HashSet<FileWithSuffix>();
@@ -172,6 +173,14 @@ public class TContext {
 		this.addStandardFunctions(defines);
 	}
 
+	public CompiledExpression getCompiledExpression(String source) {
+		return compiledExpressions.get(source);
+	}
+
+	public void putCompiledExpression(String source, CompiledExpression compiled) {
+		compiledExpressions.put(source, compiled);
+	}
+
 	public Knowledge asKnowledge(final TMemory memory, final LineLocation location) {
 		return new Knowledge() {
 
@@ -540,6 +549,7 @@ public class TContext {
 		}
 
 		ReadLine reader2 = null;
+		List<StringLocated> body = null;
 		ImportedFiles saveImportedFiles = null;
 		try {
 			if (location.startsWith("http://") || location.startsWith("https://")) {
@@ -562,32 +572,26 @@ public class TContext {
 						throw EaterException.located("This file has already been included");
 					}
 
-					if (StartDiagramExtractReader.containsStartDiagram(f2, s, charset)) {
-						reader2 = StartDiagramExtractReader.build(f2, s, charset);
-					} else {
-						final Reader reader = f2.getReader(charset);
-						if (reader == null) {
-							throw EaterException.located("Cannot include file");
-						}
-						reader2 = ReadLineReader.create(reader, location, s.getLocation());
+					body = IncludeCache.getInstance().getLines(f2, s, location, charset);
+					if (body == null) {
+						throw EaterException.located("Cannot include file");
 					}
 					saveImportedFiles = this.importedFiles;
 					this.importedFiles = this.importedFiles.withCurrentDir(f2.getParentFile());
-					assert reader2 != null;
 					filesUsedCurrent.add(f2);
 				}
 			}
 			if (reader2 != null) {
+				body = new ArrayList<StringLocated>();
+				StringLocated sl;
+				while ((sl = reader2.readLine()) != null) {
+					body.add(sl);
+				}
+			}
+			if (body != null) {
 				try {
-					final List<StringLocated> body = new ArrayList<StringLocated>();
-					do {
-						final StringLocated sl = reader2.readLine();
-						if (sl == null) {
-							executeLines(memory, body, null, false);
-							return;
-						}
-						body.add(sl);
-					} while (true);
+					executeLines(memory, body, null, false);
+					return;
 				} finally {
 					if (saveImportedFiles != null) {
 						this.importedFiles = saveImportedFiles;
@@ -0,0 +1,105 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+package net.sourceforge.plantuml.tim.expression;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import net.sourceforge.plantuml.LineLocation;
+import net.sourceforge.plantuml.tim.EaterException;
+import net.sourceforge.plantuml.tim.EaterExceptionLocated;
+import net.sourceforge.plantuml.tim.TContext;
+import net.sourceforge.plantuml.tim.TMemory;
+
+/**
+ * An expression already converted to Reverse Polish Notation.
+ * 
+ * Tokenization, function guessing and Shunting-yard only depend on the text of
+ * the expression, so they are done once. Variables are kept as PLAIN_TEXT
+ * tokens and are resolved each time the expression is evaluated.
+ */
+public final class CompiledExpression {
+
+	private final List<Token> queue;
+
+	private CompiledExpression(List<Token> queue) {
+		this.queue = queue;
+	}
+
+	public static CompiledExpression compile(TokenStack tokens) throws EaterException, EaterExceptionLocated {
+		final TokenStack tmp = tokens.withoutSpace();
+		tmp.guessFunctions();
+		final List<Token> queue = new ArrayList<Token>();
+		for (TokenIterator it = new ShuntingYard(tmp.tokenIterator()).getQueue().tokenIterator(); it
+				.hasMoreTokens();) {
+			queue.add(it.nextToken());
+		}
+		return new CompiledExpression(Collections.unmodifiableList(queue));
+	}
+
+	public TValue getResult(LineLocation location, TContext context, TMemory memory)
+			throws EaterException, EaterExceptionLocated {
+		final Knowledge knowledge = context.asKnowledge(memory, location);
+		// All variables are read before any function of the expression is called
+		final TokenStack resolved = new TokenStack();
+		for (Token token : queue) {
+			if (token.getTokenType() == TokenType.PLAIN_TEXT) {
+				final TValue variable = knowledge.getVariable(token.getSurface());
+				if (variable == null) {
+					resolved.add(new Token("undefined", TokenType.QUOTED_STRING, null));
+				} else {
+					resolved.add(variable.toToken());
+				}
+			} else {
+				resolved.add(token);
+			}
+		}
+		final ReversePolishInterpretor rpn = new ReversePolishInterpretor(location, resolved, knowledge, memory,
+				context);
+		return rpn.getResult();
+	}
+
+	@Override
+	public String toString() {
+		return queue.toString();
+	}
+
+}
@@ -63,25 +63,19 @@ public class ShuntingYard {
 		System.err.println("");
 	}
 
-	public ShuntingYard(TokenIterator it, Knowledge knowledge) throws EaterException, EaterExceptionLocated {
+	// Variables are left as PLAIN_TEXT in the output queue: see CompiledExpression
+	public ShuntingYard(TokenIterator it) throws EaterException, EaterExceptionLocated {
 
 		while (it.hasMoreTokens()) {
 			final Token token = it.nextToken();
 			traceMe();
 			if (TRACE)
 				System.err.println("token=" + token);
-			if (token.getTokenType() == TokenType.NUMBER || token.getTokenType() == TokenType.QUOTED_STRING) {
+			if (token.getTokenType() == TokenType.NUMBER || token.getTokenType() == TokenType.QUOTED_STRING
+					|| token.getTokenType() == TokenType.PLAIN_TEXT) {
 				ouputQueue.add(token);
 			} else if (token.getTokenType() == TokenType.FUNCTION_NAME) {
 				operatorStack.addFirst(token);
-			} else if (token.getTokenType() == TokenType.PLAIN_TEXT) {
-				final String name = token.getSurface();
-				final TValue variable = knowledge.getVariable(name);
-				if (variable == null) {
-					ouputQueue.add(new Token("undefined", TokenType.QUOTED_STRING, null));
-				} else {
-					ouputQueue.add(variable.toToken());
-				}
 			} else if (token.getTokenType() == TokenType.OPERATOR) {
 				while ((thereIsAFunctionAtTheTopOfTheOperatorStack(token) //
 						|| thereIsAnOperatorAtTheTopOfTheOperatorStackWithGreaterPrecedence(token) //
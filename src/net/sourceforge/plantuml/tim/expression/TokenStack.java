@@ -243,15 +243,7 @@ public class TokenStack {
 
 	public TValue getResult(LineLocation location, TContext context, TMemory memory)
 			throws EaterException, EaterExceptionLocated {
-		final Knowledge knowledge = context.asKnowledge(memory, location);
-		final TokenStack tmp = withoutSpace();
-		tmp.guessFunctions();
-		final TokenIterator it = tmp.tokenIterator();
-		final ShuntingYard shuntingYard = new ShuntingYard(it, knowledge);
-		final ReversePolishInterpretor rpn = new ReversePolishInterpretor(location, shuntingYard.getQueue(), knowledge,
-				memory, context);
-		return rpn.getResult();
-
+		return CompiledExpression.compile(this).getResult(location, context, memory);
 	}
 
 }
@@ -53,8 +53,6 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
-import javax.xml.transform.TransformerException;
-
 import net.sourceforge.plantuml.Dimension2DDouble;
 import net.sourceforge.plantuml.FileFormat;
 import net.sourceforge.plantuml.FileFormatOption;
@@ -152,7 +150,7 @@ public class FontChecker {
 
 	}
 
-	public void printChar(final PrintWriter pw, char c) throws IOException, TransformerException {
+	public void printChar(final PrintWriter pw, char c) throws IOException {
 		pw.println("<p>");
 		final int ascii = (int) c;
 		pw.println(ascii + " - " + Integer.toHexString(ascii) + " - ");
@@ -161,7 +159,7 @@ public class FontChecker {
 		pw.println(svg);
 	}
 
-	private String getSvgImage(char c) throws IOException, TransformerException {
+	private String getSvgImage(char c) throws IOException {
 		final SvgGraphics svg = new SvgGraphics(true, new Dimension2DDouble(0, 0), 1.0, null, 42, "none");
 		svg.setStrokeColor("black");
 		svg.svgImage(getBufferedImage(c), 0, 0);
@@ -207,7 +205,7 @@ public class FontChecker {
 	// return ImageIO.read(new ByteArrayInputStream(os.toByteArray()));
 	// }
 
-	public static void main(String[] args) throws IOException, TransformerException {
+	public static void main(String[] args) throws IOException {
 
 		final String name = args[0];
 		final int size = Integer.parseInt(args[1]);
@@ -58,11 +58,14 @@ public class UFont {
 	private final Font font;
 	private final String family;
 
-	private static final Set<String> names = new HashSet<String>();
+	// Listing the fonts initializes the whole font system: only done when needed
+	static class FamilyNames {
+		private static final Set<String> names = new HashSet<String>();
 
-	static {
-		for (String name : GraphicsEnvironment.getLocalGraphicsEnvironment().getAvailableFontFamilyNames()) {
-			names.add(name.toLowerCase());
+		static {
+			for (String name : GraphicsEnvironment.getLocalGraphicsEnvironment().getAvailableFontFamilyNames()) {
+				names.add(name.toLowerCase());
+			}
 		}
 	}
 
@@ -83,7 +86,7 @@ public class UFont {
 	}
 
 	private static boolean doesFamilyExists(String name) {
-		return names.contains(name.toLowerCase());
+		return FamilyNames.names.contains(name.toLowerCase());
 	}
 
 	public static UFont serif(int size) {
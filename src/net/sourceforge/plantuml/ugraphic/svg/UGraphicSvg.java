@@ -43,8 +43,6 @@ import java.awt.geom.Dimension2D;
 import java.io.IOException;
 import java.io.OutputStream;
 
-import javax.xml.transform.TransformerException;
-
 import net.sourceforge.plantuml.FileFormat;
 import net.sourceforge.plantuml.TikzFontDistortion;
 import net.sourceforge.plantuml.Url;
@@ -164,14 +162,10 @@ public class UGraphicSvg extends AbstractUGraphic<SvgGraphics> implements ClipCo
 	}
 
 	public void createXml(OutputStream os, String metadata) throws IOException {
-		try {
-			if (metadata != null) {
-				getGraphicObject().addComment(metadata);
-			}
-			getGraphicObject().createXml(os);
-		} catch (TransformerException e) {
-			throw new IOException(e.toString());
+		if (metadata != null) {
+			getGraphicObject().addComment(metadata);
 		}
+		getGraphicObject().createXml(os);
 	}
 
 	@Override
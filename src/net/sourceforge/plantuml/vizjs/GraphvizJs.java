@@ -42,24 +42,57 @@ package net.sourceforge.plantuml.vizjs;
 import java.io.File;
 import java.io.OutputStream;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import net.sourceforge.plantuml.Log;
+import net.sourceforge.plantuml.api.INumberAnalyzed;
+import net.sourceforge.plantuml.api.NumberAnalyzed;
 import net.sourceforge.plantuml.cucadiagram.dot.ExeState;
 import net.sourceforge.plantuml.cucadiagram.dot.Graphviz;
+import net.sourceforge.plantuml.cucadiagram.dot.GraphvizUtils;
 import net.sourceforge.plantuml.cucadiagram.dot.GraphvizVersion;
 import net.sourceforge.plantuml.cucadiagram.dot.ProcessState;
 
 public class GraphvizJs implements Graphviz {
 
-	private final static ExecutorService executorService = Executors
-			.newSingleThreadScheduledExecutor(new ThreadFactory() {
-				public Thread newThread(Runnable runnable) {
-					return new JsThread(runnable);
-				}
-			});
+	private static ThreadPoolExecutor executorService;
+	private static int defaultPoolSize = 1;
+
+	private final static AtomicInteger queueDepth = new AtomicInteger();
+	private final static NumberAnalyzed waiting = new NumberAnalyzed("vizjs.waiting");
+	private final static NumberAnalyzed latency = new NumberAnalyzed("vizjs.latency");
+
+	/**
+	 * Number of engines used when PLANTUML_VIZJS_POOL_SIZE is not set. Must be
+	 * called before the first layout.
+	 */
+	public static synchronized void setDefaultPoolSize(int size) {
+		defaultPoolSize = Math.max(1, size);
+	}
+
+	private static synchronized ThreadPoolExecutor getExecutorService() {
+		if (executorService == null) {
+			int size = GraphvizUtils.getenvVizJsPoolSize();
+			if (size == 0) {
+				size = defaultPoolSize;
+			}
+			Log.info("Starting " + size + " VizJs engine(s)");
+			executorService = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+					new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+						public Thread newThread(Runnable runnable) {
+							return new JsThread(runnable);
+						}
+					});
+			// Each thread creates its engine before taking its first job
+			executorService.prestartAllCoreThreads();
+		}
+		return executorService;
+	}
 
 	static class JsThread extends Thread {
 
@@ -84,6 +117,27 @@ public class GraphvizJs implements Graphviz {
 
 	}
 
+	/**
+	 * Number of layouts submitted and not started yet.
+	 */
+	public static int getQueueDepth() {
+		return queueDepth.get();
+	}
+
+	/**
+	 * Time spent in the queue by each layout, in milliseconds.
+	 */
+	public static INumberAnalyzed getWaitingTime() {
+		return waiting.getCopyImmutable();
+	}
+
+	/**
+	 * Time from submission to result of each layout, in milliseconds.
+	 */
+	public static INumberAnalyzed getLatency() {
+		return latency.getCopyImmutable();
+	}
+
 	private final String dotString;
 
 	public GraphvizJs(String dotString) {
@@ -102,11 +156,23 @@ public class GraphvizJs implements Graphviz {
 	}
 
 	private Future<String> submitJob() {
-		return executorService.submit(new Callable<String>() {
+		final long submitted = System.currentTimeMillis();
+		final int depth = queueDepth.incrementAndGet();
+		Log.info("VizJs queue depth " + depth);
+		return getExecutorService().submit(new Callable<String>() {
 			public String call() throws Exception {
-				final JsThread th = (JsThread) Thread.currentThread();
-				final VizJsEngine engine = th.engine;
-				return engine.execute(dotString);
+				queueDepth.decrementAndGet();
+				final long start = System.currentTimeMillis();
+				waiting.addValue(start - submitted);
+				try {
+					final JsThread th = (JsThread) Thread.currentThread();
+					final VizJsEngine engine = th.engine;
+					return engine.execute(dotString);
+				} finally {
+					final long end = System.currentTimeMillis();
+					latency.addValue(end - submitted);
+					Log.info("VizJs layout in " + (end - start) + " ms, after waiting " + (start - submitted) + " ms");
+				}
 			}
 		});
 	}
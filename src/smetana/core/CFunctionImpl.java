@@ -74,11 +74,6 @@ public class CFunctionImpl extends UnsupportedC implements CFunction, Area {
 	}
 
 	public Object exe(Object... args) {
-		JUtils.LOG("-------");
-		for (Object arg : args) {
-			JUtils.LOG("arg=" + arg);
-		}
-		JUtils.LOG("method="+method);
 		try {
 			return this.method.invoke(null, args);
 		} catch (InvocationTargetException e) {
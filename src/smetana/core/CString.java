@@ -51,7 +51,6 @@ public class CString extends UnsupportedC implements __ptr__, Area {
 
 	private static int UID = 100;
 
-	private final Throwable creation = new Throwable();
 	private final List<Character> data2;
 	private final int currentStart;
 
@@ -107,7 +106,6 @@ public class CString extends UnsupportedC implements __ptr__, Area {
 		this.currentStart = currentStart;
 		this.uid = UID;
 		UID += 2;
-		creation.fillInStackTrace();
 	}
 
 	public __ptr__ addVirtualBytes(int bytes) {
@@ -42,7 +42,6 @@ package smetana.core;
 public class Memory {
 
 	public static __ptr__ malloc(Class theClass) {
-		JUtils.LOG("MEMORY::malloc " + theClass);
 		return JUtils.create(theClass, null);
 	}
 
@@ -0,0 +1,823 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * Licensed under The MIT License (Massachusetts Institute of Technology License)
+ * 
+ * See http://opensource.org/licenses/MIT
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ *
+ * Original Author:  Arnaud Roques
+ */
+
+package smetana.core;
+
+import static gen.lib.cgraph.edge__c.aghead;
+import static gen.lib.cgraph.edge__c.agtail;
+import static smetana.core.Macro.ED_cutvalue;
+import static smetana.core.Macro.ED_minlen;
+import static smetana.core.Macro.ED_tree_index;
+import static smetana.core.Macro.ED_weight;
+import static smetana.core.Macro.GD_nlist;
+import static smetana.core.Macro.ND_in;
+import static smetana.core.Macro.ND_lim;
+import static smetana.core.Macro.ND_low;
+import static smetana.core.Macro.ND_mark;
+import static smetana.core.Macro.ND_next;
+import static smetana.core.Macro.ND_node_type;
+import static smetana.core.Macro.ND_out;
+import static smetana.core.Macro.ND_par;
+import static smetana.core.Macro.ND_priority;
+import static smetana.core.Macro.ND_rank;
+import static smetana.core.Macro.ND_tree_in;
+import static smetana.core.Macro.ND_tree_out;
+import h.ST_Agedge_s;
+import h.ST_Agnode_s;
+import h.ST_Agraph_s;
+import h.ST_elist;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The network simplex of ns.c, running over int arrays instead of the node and edge structures.
+ * <p>
+ * Nodes and edges are numbered in the order ns.c walks them, so every tie is broken the same way and the ranks are
+ * identical to the ones of gen.lib.common.ns__c. Whatever ns.c leaves in the structures is written back at the end.
+ */
+public class NetworkSimplex {
+
+	private static final int UNTOUCHED = -2;
+
+	private final ST_Agraph_s g;
+	private final ST_Agnode_s nodes[];
+	private final ST_Agedge_s edges[];
+	private final int nbNodes;
+	private final int nbEdges;
+
+	// Nodes: out and in edges are stored as slices of outEdge and inEdge
+	private final int outStart[];
+	private final int outEdge[];
+	private final int inStart[];
+	private final int inEdge[];
+	private final int rank[];
+	private final int nodeType[];
+	private final int mark[];
+	private final int priority[];
+	private final int low[];
+	private final int lim[];
+	private final int par[];
+	// Tree edges of a node use the same slices as its edges
+	private final int treeOut[];
+	private final int treeOutSize[];
+	private final int treeIn[];
+	private final int treeInSize[];
+	private final boolean freed[];
+
+	// Edges
+	private final int tail[];
+	private final int head[];
+	private final int minlen[];
+	private final int weight[];
+	private final int cutvalue[];
+	private final int treeIndex[];
+
+	private final int treeEdge[];
+	private int treeEdgeSize;
+	private final int treeNode[];
+	private int treeNodeSize;
+
+	private int searchSize;
+	private int sI;
+	private int enter;
+	private int searchLow;
+	private int searchLim;
+	private int searchSlack;
+	private int minrank;
+	private int maxrank;
+	private boolean normalized;
+
+	/**
+	 * Takes a snapshot of the graph, or returns <code>null</code> when its edge lists are not consistent enough to
+	 * be numbered. In that case, gen.lib.common.ns__c must be used.
+	 */
+	public static NetworkSimplex create(ST_Agraph_s g) {
+		final Map<ST_Agnode_s, Integer> nodeIds = new IdentityHashMap<ST_Agnode_s, Integer>();
+		final List<ST_Agnode_s> nodes = new ArrayList<ST_Agnode_s>();
+		for (ST_Agnode_s n = GD_nlist(g); n != null; n = ND_next(n)) {
+			if (nodeIds.put(n, nodes.size()) != null) {
+				return null;
+			}
+			nodes.add(n);
+		}
+		final Map<ST_Agedge_s, Integer> edgeIds = new IdentityHashMap<ST_Agedge_s, Integer>();
+		final List<ST_Agedge_s> edges = new ArrayList<ST_Agedge_s>();
+		for (ST_Agnode_s n : nodes) {
+			ST_Agedge_s e;
+			for (int i = 0; (e = (ST_Agedge_s) ND_out(n).getFromList(i)) != null; i++) {
+				if (agtail(e) != n || nodeIds.containsKey(aghead(e)) == false) {
+					return null;
+				}
+				if (edgeIds.put(e, edges.size()) != null) {
+					return null;
+				}
+				edges.add(e);
+			}
+		}
+		final int inEdge[] = new int[edges.size()];
+		final boolean seen[] = new boolean[edges.size()];
+		int nbIn = 0;
+		for (ST_Agnode_s n : nodes) {
+			ST_Agedge_s e;
+			for (int i = 0; (e = (ST_Agedge_s) ND_in(n).getFromList(i)) != null; i++) {
+				final Integer id = edgeIds.get(e);
+				if (id == null || aghead(e) != n || seen[id]) {
+					return null;
+				}
+				seen[id] = true;
+				inEdge[nbIn++] = id;
+			}
+		}
+		if (nbIn != edges.size()) {
+			return null;
+		}
+		return new NetworkSimplex(g, nodes, edges, nodeIds, inEdge);
+	}
+
+	private NetworkSimplex(ST_Agraph_s g, List<ST_Agnode_s> nodeList, List<ST_Agedge_s> edgeList,
+			Map<ST_Agnode_s, Integer> nodeIds, int inEdge[]) {
+		this.g = g;
+		this.nodes = nodeList.toArray(new ST_Agnode_s[nodeList.size()]);
+		this.edges = edgeList.toArray(new ST_Agedge_s[edgeList.size()]);
+		this.nbNodes = nodes.length;
+		this.nbEdges = edges.length;
+
+		this.tail = new int[nbEdges];
+		this.head = new int[nbEdges];
+		this.minlen = new int[nbEdges];
+		this.weight = new int[nbEdges];
+		this.cutvalue = new int[nbEdges];
+		this.treeIndex = new int[nbEdges];
+		for (int e = 0; e < nbEdges; e++) {
+			tail[e] = nodeIds.get(agtail(edges[e]));
+			head[e] = nodeIds.get(aghead(edges[e]));
+			minlen[e] = ED_minlen(edges[e]);
+			weight[e] = ED_weight(edges[e]);
+		}
+
+		this.outStart = new int[nbNodes + 1];
+		this.outEdge = new int[nbEdges];
+		this.inStart = new int[nbNodes + 1];
+		this.inEdge = inEdge;
+		// Edges have been numbered following the out lists
+		for (int e = 0; e < nbEdges; e++) {
+			outEdge[e] = e;
+			outStart[tail[e] + 1]++;
+		}
+		for (int e = 0; e < nbEdges; e++) {
+			inStart[head[e] + 1]++;
+		}
+		for (int v = 0; v < nbNodes; v++) {
+			outStart[v + 1] += outStart[v];
+			inStart[v + 1] += inStart[v];
+		}
+
+		this.rank = new int[nbNodes];
+		this.nodeType = new int[nbNodes];
+		this.mark = new int[nbNodes];
+		this.priority = new int[nbNodes];
+		this.low = new int[nbNodes];
+		this.lim = new int[nbNodes];
+		this.par = new int[nbNodes];
+		for (int v = 0; v < nbNodes; v++) {
+			rank[v] = ND_rank(nodes[v]);
+			nodeType[v] = ND_node_type(nodes[v]);
+			low[v] = ND_low(nodes[v]);
+			lim[v] = ND_lim(nodes[v]);
+			par[v] = UNTOUCHED;
+		}
+		this.treeOut = new int[nbEdges];
+		this.treeOutSize = new int[nbNodes];
+		this.treeIn = new int[nbEdges];
+		this.treeInSize = new int[nbNodes];
+		this.freed = new boolean[nbNodes];
+		this.treeEdge = new int[nbNodes];
+		this.treeNode = new int[nbNodes];
+	}
+
+	public int rank2(int balance, int maxiter, int search_size) {
+		try {
+			return rank2Internal(balance, maxiter, search_size);
+		} finally {
+			writeBack();
+		}
+	}
+
+	private int rank2Internal(int balance, int maxiter, int search_size) {
+		int iter = 0;
+		if (init_graph() == false)
+			init_rank();
+		if (maxiter <= 0) {
+			freeTreeList();
+			return 1;
+		}
+		if (search_size >= 0)
+			searchSize = search_size;
+		else
+			searchSize = 30;
+		if (feasible_tree() != 0) {
+			freeTreeList();
+			return 1;
+		}
+		int e;
+		while ((e = leave_edge()) != -1) {
+			final int f = enter_edge(e);
+			update(e, f);
+			iter++;
+			if (iter >= maxiter)
+				break;
+		}
+		switch (balance) {
+		case 1:
+			TB_balance();
+			break;
+		case 2:
+			LR_balance();
+			break;
+		default:
+			scan_and_normalize();
+			freeTreeList();
+			break;
+		}
+		return 0;
+	}
+
+	private void writeBack() {
+		for (int v = 0; v < nbNodes; v++) {
+			final ST_Agnode_s n = nodes[v];
+			ND_rank(n, rank[v]);
+			ND_mark(n, mark[v]);
+			ND_priority(n, priority[v]);
+			ND_low(n, low[v]);
+			ND_lim(n, lim[v]);
+			if (par[v] != UNTOUCHED)
+				ND_par(n, par[v] == -1 ? null : edges[par[v]]);
+			writeTreeList(ND_tree_out(n), treeOut, outStart[v], outStart[v + 1], treeOutSize[v], freed[v]);
+			writeTreeList(ND_tree_in(n), treeIn, inStart[v], inStart[v + 1], treeInSize[v], freed[v]);
+		}
+		for (int e = 0; e < nbEdges; e++) {
+			ED_cutvalue(edges[e], cutvalue[e]);
+			ED_tree_index(edges[e], treeIndex[e]);
+		}
+		final Z z = Z.z();
+		z.G_ns = g;
+		z.N_nodes = nbNodes;
+		z.N_edges = nbEdges;
+		z.S_i = sI;
+		z.Search_size = searchSize;
+		if (normalized) {
+			z.Minrank = minrank;
+			z.Maxrank = maxrank;
+		}
+	}
+
+	private void writeTreeList(ST_elist list, int tree[], int start, int end, int size, boolean free) {
+		if (free) {
+			list.free();
+		} else {
+			list.mallocEmpty(end - start + 1);
+			for (int i = 0; i < size; i++)
+				list.setInList(i, edges[tree[start + i]]);
+		}
+		list.size = size;
+	}
+
+	private int slack(int e) {
+		return rank[head[e]] - rank[tail[e]] - minlen[e];
+	}
+
+	private static boolean seq(int a, int b, int c) {
+		return a <= b && b <= c;
+	}
+
+	private boolean init_graph() {
+		boolean feasible = true;
+		for (int v = 0; v < nbNodes; v++) {
+			mark[v] = 0;
+			priority[v] = 0;
+			for (int i = inStart[v]; i < inStart[v + 1]; i++) {
+				final int e = inEdge[i];
+				priority[v]++;
+				cutvalue[e] = 0;
+				treeIndex[e] = -1;
+				if (feasible && rank[head[e]] - rank[tail[e]] < minlen[e])
+					feasible = false;
+			}
+			treeInSize[v] = 0;
+			treeOutSize[v] = 0;
+		}
+		return feasible;
+	}
+
+	private void init_rank() {
+		// Same ring buffer as new_queue(), enqueue() and dequeue()
+		final int queue[] = new int[Math.max(nbNodes, 2)];
+		int qhead = 0;
+		int qtail = 0;
+		int ctr = 0;
+		for (int v = 0; v < nbNodes; v++) {
+			if (priority[v] == 0) {
+				queue[qtail++] = v;
+				if (qtail >= queue.length)
+					qtail = 0;
+			}
+		}
+		while (qhead != qtail) {
+			final int v = queue[qhead++];
+			if (qhead >= queue.length)
+				qhead = 0;
+			rank[v] = 0;
+			ctr++;
+			for (int i = inStart[v]; i < inStart[v + 1]; i++) {
+				final int e = inEdge[i];
+				rank[v] = Math.max(rank[v], rank[tail[e]] + minlen[e]);
+			}
+			for (int i = outStart[v]; i < outStart[v + 1]; i++) {
+				final int w = head[outEdge[i]];
+				priority[w]--;
+				if (priority[w] <= 0) {
+					queue[qtail++] = w;
+					if (qtail >= queue.length)
+						qtail = 0;
+				}
+			}
+		}
+		if (ctr != nbNodes)
+			throw new UnsupportedOperationException("trouble in init_rank");
+	}
+
+	private void add_tree_edge(int e) {
+		if (treeIndex[e] >= 0)
+			throw new UnsupportedOperationException("add_tree_edge: missing tree edge");
+		treeIndex[e] = treeEdgeSize;
+		treeEdge[treeEdgeSize++] = e;
+		if (mark[tail[e]] == 0)
+			treeNode[treeNodeSize++] = tail[e];
+		if (mark[head[e]] == 0)
+			treeNode[treeNodeSize++] = head[e];
+		int n = tail[e];
+		mark[n] = 1;
+		if (outStart[n] + treeOutSize[n] >= outStart[n + 1])
+			throw new UnsupportedOperationException("add_tree_edge: empty outedge list");
+		treeOut[outStart[n] + treeOutSize[n]++] = e;
+		n = head[e];
+		mark[n] = 1;
+		if (inStart[n] + treeInSize[n] >= inStart[n + 1])
+			throw new UnsupportedOperationException("add_tree_edge: empty inedge list");
+		treeIn[inStart[n] + treeInSize[n]++] = e;
+	}
+
+	private void exchange_tree_edges(int e, int f) {
+		treeIndex[f] = treeIndex[e];
+		treeEdge[treeIndex[e]] = f;
+		treeIndex[e] = -1;
+		int n = tail[e];
+		int i = --treeOutSize[n];
+		int j;
+		for (j = 0; j <= i; j++)
+			if (treeOut[outStart[n] + j] == e)
+				break;
+		treeOut[outStart[n] + j] = treeOut[outStart[n] + i];
+		n = head[e];
+		i = --treeInSize[n];
+		for (j = 0; j <= i; j++)
+			if (treeIn[inStart[n] + j] == e)
+				break;
+		treeIn[inStart[n] + j] = treeIn[inStart[n] + i];
+		n = tail[f];
+		treeOut[outStart[n] + treeOutSize[n]++] = f;
+		n = head[f];
+		treeIn[inStart[n] + treeInSize[n]++] = f;
+	}
+
+	private int incident(int e) {
+		if (mark[tail[e]] != 0) {
+			if (mark[head[e]] == 0)
+				return tail[e];
+		} else {
+			if (mark[head[e]] != 0)
+				return head[e];
+		}
+		return -1;
+	}
+
+	private int leave_edge() {
+		int rv = -1;
+		int cnt = 0;
+		final int j = sI;
+		while (sI < treeEdgeSize) {
+			final int f = treeEdge[sI];
+			if (cutvalue[f] < 0) {
+				if (rv != -1) {
+					if (cutvalue[rv] > cutvalue[f])
+						rv = f;
+				} else
+					rv = f;
+				if (++cnt >= searchSize)
+					return rv;
+			}
+			sI++;
+		}
+		if (j > 0) {
+			sI = 0;
+			while (sI < j) {
+				final int f = treeEdge[sI];
+				if (cutvalue[f] < 0) {
+					if (rv != -1) {
+						if (cutvalue[rv] > cutvalue[f])
+							rv = f;
+					} else
+						rv = f;
+					if (++cnt >= searchSize)
+						return rv;
+				}
+				sI++;
+			}
+		}
+		return rv;
+	}
+
+	private void dfs_enter_outedge(int v) {
+		for (int i = outStart[v]; i < outStart[v + 1]; i++) {
+			final int e = outEdge[i];
+			if (treeIndex[e] < 0) {
+				if (seq(searchLow, lim[head[e]], searchLim) == false) {
+					final int slack = slack(e);
+					if (slack < searchSlack || enter == -1) {
+						enter = e;
+						searchSlack = slack;
+					}
+				}
+			} else if (lim[head[e]] < lim[v])
+				dfs_enter_outedge(head[e]);
+		}
+		for (int i = 0; i < treeInSize[v] && searchSlack > 0; i++) {
+			final int e = treeIn[inStart[v] + i];
+			if (lim[tail[e]] < lim[v])
+				dfs_enter_outedge(tail[e]);
+		}
+	}
+
+	private void dfs_enter_inedge(int v) {
+		for (int i = inStart[v]; i < inStart[v + 1]; i++) {
+			final int e = inEdge[i];
+			if (treeIndex[e] < 0) {
+				if (seq(searchLow, lim[tail[e]], searchLim) == false) {
+					final int slack = slack(e);
+					if (slack < searchSlack || enter == -1) {
+						enter = e;
+						searchSlack = slack;
+					}
+				}
+			} else if (lim[tail[e]] < lim[v])
+				dfs_enter_inedge(tail[e]);
+		}
+		for (int i = 0; i < treeOutSize[v] && searchSlack > 0; i++) {
+			final int e = treeOut[outStart[v] + i];
+			if (lim[head[e]] < lim[v])
+				dfs_enter_inedge(head[e]);
+		}
+	}
+
+	private int enter_edge(int e) {
+		final int v;
+		final boolean outsearch;
+		/* v is the down node */
+		if (lim[tail[e]] < lim[head[e]]) {
+			v = tail[e];
+			outsearch = false;
+		} else {
+			v = head[e];
+			outsearch = true;
+		}
+		enter = -1;
+		searchSlack = Integer.MAX_VALUE;
+		searchLow = low[v];
+		searchLim = lim[v];
+		if (outsearch)
+			dfs_enter_outedge(v);
+		else
+			dfs_enter_inedge(v);
+		return enter;
+	}
+
+	private boolean treesearch(int v) {
+		for (int i = outStart[v]; i < outStart[v + 1]; i++) {
+			final int e = outEdge[i];
+			if (mark[head[e]] == 0 && slack(e) == 0) {
+				add_tree_edge(e);
+				if (treeEdgeSize == nbNodes - 1 || treesearch(head[e]))
+					return true;
+			}
+		}
+		for (int i = inStart[v]; i < inStart[v + 1]; i++) {
+			final int e = inEdge[i];
+			if (mark[tail[e]] == 0 && slack(e) == 0) {
+				add_tree_edge(e);
+				if (treeEdgeSize == nbNodes - 1 || treesearch(tail[e]))
+					return true;
+			}
+		}
+		return false;
+	}
+
+	private int tight_tree() {
+		for (int v = 0; v < nbNodes; v++) {
+			mark[v] = 0;
+			treeInSize[v] = 0;
+			treeOutSize[v] = 0;
+		}
+		for (int i = 0; i < treeEdgeSize; i++)
+			treeIndex[treeEdge[i]] = -1;
+		treeNodeSize = 0;
+		treeEdgeSize = 0;
+		for (int v = 0; v < nbNodes && treeEdgeSize == 0; v++)
+			treesearch(v);
+		return treeNodeSize;
+	}
+
+	private int feasible_tree() {
+		if (nbNodes <= 1)
+			return 0;
+		while (tight_tree() < nbNodes) {
+			int e = -1;
+			for (int v = 0; v < nbNodes; v++) {
+				for (int i = outStart[v]; i < outStart[v + 1]; i++) {
+					final int f = outEdge[i];
+					if (treeIndex[f] < 0 && incident(f) != -1 && (e == -1 || slack(f) < slack(e)))
+						e = f;
+				}
+			}
+			if (e == -1)
+				return 1;
+			int delta = slack(e);
+			if (delta != 0) {
+				if (incident(e) == head[e])
+					delta = -delta;
+				for (int i = 0; i < treeNodeSize; i++)
+					rank[treeNode[i]] += delta;
+			}
+		}
+		// init_cutvalues()
+		dfs_range(0, -1, 1);
+		dfs_cutval(0, -1);
+		return 0;
+	}
+
+	private int treeupdate(int v, int w, int cutvalue, boolean dir) {
+		while (seq(low[v], lim[w], lim[v]) == false) {
+			final int e = par[v];
+			final boolean d = v == tail[e] ? dir : !dir;
+			if (d)
+				this.cutvalue[e] += cutvalue;
+			else
+				this.cutvalue[e] -= cutvalue;
+			if (lim[tail[e]] > lim[head[e]])
+				v = tail[e];
+			else
+				v = head[e];
+		}
+		return v;
+	}
+
+	private void rerank(int v, int delta) {
+		rank[v] -= delta;
+		for (int i = 0; i < treeOutSize[v]; i++) {
+			final int e = treeOut[outStart[v] + i];
+			if (e != par[v])
+				rerank(head[e], delta);
+		}
+		for (int i = 0; i < treeInSize[v]; i++) {
+			final int e = treeIn[inStart[v] + i];
+			if (e != par[v])
+				rerank(tail[e], delta);
+		}
+	}
+
+	private void update(int e, int f) {
+		final int delta = slack(f);
+		/* "for (v = in nodes in tail side of e) do ND_rank(v) -= delta;" */
+		if (delta > 0) {
+			if (treeInSize[tail[e]] + treeOutSize[tail[e]] == 1)
+				rerank(tail[e], delta);
+			else if (treeInSize[head[e]] + treeOutSize[head[e]] == 1)
+				rerank(head[e], -delta);
+			else if (lim[tail[e]] < lim[head[e]])
+				rerank(tail[e], delta);
+			else
+				rerank(head[e], -delta);
+		}
+		final int cut = cutvalue[e];
+		final int lca = treeupdate(tail[f], head[f], cut, true);
+		if (treeupdate(head[f], tail[f], cut, false) != lca)
+			throw new UnsupportedOperationException("update: mismatched lca in treeupdates");
+		cutvalue[f] = -cut;
+		cutvalue[e] = 0;
+		exchange_tree_edges(e, f);
+		dfs_range(lca, par[lca], low[lca]);
+	}
+
+	private void scan_and_normalize() {
+		normalized = true;
+		minrank = Integer.MAX_VALUE;
+		maxrank = -Integer.MAX_VALUE;
+		for (int v = 0; v < nbNodes; v++) {
+			if (nodeType[v] == 0) {
+				minrank = Math.min(minrank, rank[v]);
+				maxrank = Math.max(maxrank, rank[v]);
+			}
+		}
+		if (minrank != 0) {
+			for (int v = 0; v < nbNodes; v++)
+				rank[v] -= minrank;
+			maxrank -= minrank;
+			minrank = 0;
+		}
+	}
+
+	private void freeTreeList() {
+		for (int v = 0; v < nbNodes; v++) {
+			freed[v] = true;
+			mark[v] = 0;
+		}
+	}
+
+	private void LR_balance() {
+		for (int i = 0; i < treeEdgeSize; i++) {
+			final int e = treeEdge[i];
+			if (cutvalue[e] == 0) {
+				final int f = enter_edge(e);
+				if (f == -1)
+					continue;
+				final int delta = slack(f);
+				if (delta <= 1)
+					continue;
+				if (lim[tail[e]] < lim[head[e]])
+					rerank(tail[e], delta / 2);
+				else
+					rerank(head[e], -delta / 2);
+			}
+		}
+		freeTreeList();
+	}
+
+	private void TB_balance() {
+		scan_and_normalize();
+		/* find nodes that are not tight and move to less populated ranks */
+		final int nrank[] = new int[maxrank + 1];
+		for (int v = 0; v < nbNodes; v++)
+			if (nodeType[v] == 0)
+				nrank[rank[v]]++;
+		for (int v = 0; v < nbNodes; v++) {
+			if (nodeType[v] != 0)
+				continue;
+			int inweight = 0;
+			int outweight = 0;
+			int low = 0;
+			int high = maxrank;
+			for (int i = inStart[v]; i < inStart[v + 1]; i++) {
+				final int e = inEdge[i];
+				inweight += weight[e];
+				low = Math.max(low, rank[tail[e]] + minlen[e]);
+			}
+			for (int i = outStart[v]; i < outStart[v + 1]; i++) {
+				final int e = outEdge[i];
+				outweight += weight[e];
+				high = Math.min(high, rank[head[e]] - minlen[e]);
+			}
+			if (low < 0)
+				low = 0; /* vnodes can have ranks < 0 */
+			if (inweight == outweight) {
+				int choice = low;
+				for (int i = low + 1; i <= high; i++)
+					if (nrank[i] < nrank[choice])
+						choice = i;
+				nrank[rank[v]]--;
+				nrank[choice]++;
+				rank[v] = choice;
+			}
+			freed[v] = true;
+			mark[v] = 0;
+		}
+	}
+
+	private void x_cutval(int f) {
+		final int v;
+		final int dir;
+		/* set v to the node on the side of the edge already searched */
+		if (par[tail[f]] == f) {
+			v = tail[f];
+			dir = 1;
+		} else {
+			v = head[f];
+			dir = -1;
+		}
+		int sum = 0;
+		for (int i = outStart[v]; i < outStart[v + 1]; i++)
+			sum += x_val(outEdge[i], v, dir);
+		for (int i = inStart[v]; i < inStart[v + 1]; i++)
+			sum += x_val(inEdge[i], v, dir);
+		cutvalue[f] = sum;
+	}
+
+	private int x_val(int e, int v, int dir) {
+		final int other = tail[e] == v ? head[e] : tail[e];
+		final boolean f;
+		int rv;
+		if (seq(low[v], lim[other], lim[v]) == false) {
+			f = true;
+			rv = weight[e];
+		} else {
+			f = false;
+			if (treeIndex[e] >= 0)
+				rv = cutvalue[e];
+			else
+				rv = 0;
+			rv -= weight[e];
+		}
+		int d;
+		if (dir > 0)
+			d = head[e] == v ? 1 : -1;
+		else
+			d = tail[e] == v ? 1 : -1;
+		if (f)
+			d = -d;
+		if (d < 0)
+			rv = -rv;
+		return rv;
+	}
+
+	private void dfs_cutval(int v, int parent) {
+		for (int i = 0; i < treeOutSize[v]; i++) {
+			final int e = treeOut[outStart[v] + i];
+			if (e != parent)
+				dfs_cutval(head[e], e);
+		}
+		for (int i = 0; i < treeInSize[v]; i++) {
+			final int e = treeIn[inStart[v] + i];
+			if (e != parent)
+				dfs_cutval(tail[e], e);
+		}
+		if (parent != -1)
+			x_cutval(parent);
+	}
+
+	private int dfs_range(int v, int parent, int low) {
+		int lim = low;
+		this.par[v] = parent;
+		this.low[v] = low;
+		for (int i = 0; i < treeOutSize[v]; i++) {
+			final int e = treeOut[outStart[v] + i];
+			if (e != parent)
+				lim = dfs_range(head[e], e, lim);
+		}
+		for (int i = 0; i < treeInSize[v]; i++) {
+			final int e = treeIn[inStart[v] + i];
+			if (e != parent)
+				lim = dfs_range(tail[e], e, lim);
+		}
+		this.lim[v] = lim;
+		return lim + 1;
+	}
+
+}
@@ -53,17 +53,20 @@ public class OFFSET {
 	private final Class cl;
 	private final String field;
 	private final int id;
+	// Compared by the structures on each pointer move: built once
+	private final String name;
 
 	private OFFSET(Class cl, String field) {
 		this.cl = cl;
 		this.field = field;
+		this.name = cl.getName() + "::" + field;
 		this.id = CPT++;
 		JUtils.LOG("REAL CREATING OF " + this);
 	}
 
 	@Override
 	public String toString() {
-		return cl.getName() + "::" + field;
+		return name;
 	}
 
 	public static OFFSET create(Class cl, String field) {
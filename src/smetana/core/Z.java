@@ -153,6 +153,9 @@ public class Z {
 
 	public int MaxIter;
 
+	// Not in Graphviz: network simplex and mincross run over int arrays
+	public boolean UseArrays;
+
 	public int State;
 
 	public int EdgeLabelsDone;
@@ -282,6 +285,11 @@ public class Z {
 
 	public __ptr__ Count;
 	public int C;
+	public int CountArray[];
+	public int MedianList[];
+	public int CrossOrder[];
+	public int CrossPenalty[];
+	public double CrossPort[];
 
 	public int ctr = 1;
 